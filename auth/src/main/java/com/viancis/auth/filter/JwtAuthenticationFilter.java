@@ -1,6 +1,8 @@
 package com.viancis.auth.filter;
 
 import com.viancis.auth.service.CustomUserDetails;
+import com.viancis.auth.service.RoleAuthorities;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,8 +13,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -23,8 +25,9 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 @Component
 @Order(1)
@@ -54,29 +57,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String token = getTokenFromRequest(request);
         try {
             if (StringUtils.hasText(token)) {
-                String username = null;
+                // Токен разбирается один раз, имя, роли и id берутся из одних claims
+                Claims claims;
                 try {
-                    if (jwtTokenProvider.validateToken(token)) {
-                        username = jwtTokenProvider.getUsername(token);
-                    }
+                    claims = jwtTokenProvider.getVerifiedClaims(token);
                 } catch (io.jsonwebtoken.ExpiredJwtException ex) {
                     token = jwtTokenProvider.generateTokenFromExpiredClaims(ex.getClaims());
                     response.setHeader("Authorization", "Bearer " + token);
-                    username = ex.getClaims().getSubject();
+                    claims = ex.getClaims();
                 }
 
+                String username = claims.getSubject();
                 if (username != null) {
-                    Set<String> roles = jwtTokenProvider.getRoles(token);
-                    Collection<GrantedAuthority> authorities = getAuthoritiesFromRoles(roles);
-                    CustomUserDetails userDetails = new CustomUserDetails(jwtTokenProvider.getId(token), username, roles);
-
-                    UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            authorities
-                    );
-                    authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                    SecurityContextHolder.getContext().setAuthentication(authenticationFor(claims, username, request));
                 }
             }
         } catch (io.jsonwebtoken.security.SignatureException e) {
@@ -103,10 +96,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
 
+    // Токен и принципал (с изменяемым User внутри) создаются на каждый запрос: общий экземпляр
+    // разделял бы setDetails/eraseCredentials/setAuthenticated между запросами. Общими остаются
+    // только неизменяемые наборы ролей и authorities из RoleAuthorities, так что это пара небольших объектов.
+    // Details (адрес клиента и сессия) выставляются каждому токену, как раньше
+    private Authentication authenticationFor(Claims claims, String username, HttpServletRequest request) {
+        String id = claims.get("id", String.class);
+        RoleAuthorities roleAuthorities = RoleAuthorities.of(claims.get("roles", List.class));
+        CustomUserDetails userDetails = new CustomUserDetails(UUID.fromString(id), username, roleAuthorities);
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(userDetails, null, roleAuthorities.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        return authentication;
+    }
+
     public Collection<GrantedAuthority> getAuthoritiesFromRoles(Set<String> roles) {
-        return roles.stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toList()); // Возвращаем коллекцию
+        return RoleAuthorities.of(roles).getAuthorities();
     }
 
     @Override
@@ -1,17 +1,26 @@
 package com.viancis.auth.filter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.viancis.auth.service.CustomUserDetails;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -26,6 +35,31 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long validityInMilliseconds;
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize = 10000;
+
+    @Value("${jwt.claims-cache.max-ttl-seconds:300}")
+    private long claimsCacheMaxTtlSeconds = 300;
+
+    private SecretKey secretKey;
+
+    private JwtParser parser;
+
+    // Проверенные claims по SHA-256 токена; запись живёт не дольше срока действия токена
+    private Cache<String, Claims> claimsCache;
+
+    @PostConstruct
+    public void init() {
+        secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new ClaimsExpiry(TimeUnit.SECONDS.toNanos(claimsCacheMaxTtlSeconds)))
+                .build();
+    }
+
 
     public String generateToken(CustomUserDetails authentication) {
         String username = authentication.getUsername();
@@ -45,7 +79,7 @@ public class JwtTokenProvider {
     }
 
     private SecretKey key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        return secretKey;
     }
 
     // extract username from JWT token
@@ -54,12 +88,20 @@ public class JwtTokenProvider {
     }
 
     public UUID getId(String token) {
-        return UUID.fromString(extractClaim(token, claims -> claims.get("id", String.class)));
+        return extractClaim(token, this::getId);
     }
 
 
     public Set<String> getRoles(String token) {
-        return extractClaim(token, claims -> new HashSet<>(claims.get("roles", List.class)));
+        return extractClaim(token, this::getRoles);
+    }
+
+    public UUID getId(Claims claims) {
+        return UUID.fromString(claims.get("id", String.class));
+    }
+
+    public Set<String> getRoles(Claims claims) {
+        return new HashSet<>(claims.get("roles", List.class));
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -68,23 +110,71 @@ public class JwtTokenProvider {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return getVerifiedClaims(token);
+    }
+
+    // Подпись проверяется один раз на токен: повторные запросы с тем же токеном берут claims из кэша.
+    // Просроченный или неверный токен не кэшируется — исключение парсера уходит вызывающему
+    public Claims getVerifiedClaims(String token) {
+        String tokenHash = hash(token);
+        Claims claims = claimsCache.getIfPresent(tokenHash);
+        if (claims != null && !isExpired(claims)) {
+            return claims;
+        }
+        claims = parser.parseSignedClaims(token).getPayload();
+        claimsCache.put(tokenHash, claims);
+        return claims;
     }
 
 
     public boolean validateToken(String token) {
-        Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build()
-                .parse(token);
+        getVerifiedClaims(token);
         return true;
 
     }
 
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class ClaimsExpiry implements Expiry<String, Claims> {
+        private final long maxTtlNanos;
+
+        ClaimsExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long untilExpiration = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiration));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
 
     public String generateSecretKey() {
 
@@ -105,8 +195,8 @@ public class JwtTokenProvider {
 
     public String generateTokenFromExpiredClaims(Claims claims) {
         String username = claims.getSubject();
-        UUID userId = UUID.fromString(claims.get("id", String.class));
-        Set<String> roles = new HashSet<>(claims.get("roles", List.class));
+        UUID userId = getId(claims);
+        Set<String> roles = getRoles(claims);
         CustomUserDetails userDetails = new CustomUserDetails(userId, username, roles);
 
         return generateToken(userDetails);
@@ -1,17 +1,14 @@
 package com.viancis.auth.service;
 
-import com.viancis.auth.model.Role;
 import com.viancis.auth.model.User;
 import lombok.Getter;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Getter
 
@@ -26,19 +23,19 @@ public class CustomUserDetails implements UserDetails, Serializable {
     public CustomUserDetails(User user) {
         this.user = user;
         this.password = user.getPassword();
-        this.authorities = user.getRoles().stream()
-                .map(Role::getAuthority)
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toSet());
+        this.authorities = RoleAuthorities.ofRoles(user.getRoles()).getAuthorities();
     }
 
 
     public CustomUserDetails(UUID id, String username, Set<String> roles) {
-        this.user = new User(id,username,"",roles.stream().map(Role::fromString).collect(Collectors.toSet()));
-        this.password = user.getPassword();
-        this.authorities = roles.stream()
-                .map(SimpleGrantedAuthority::new)
-                .collect(Collectors.toSet());
+        this(id, username, RoleAuthorities.of(roles));
+    }
+
+    // Принципал из токена: роли и authorities — общие неизменяемые наборы, пароля нет
+    public CustomUserDetails(UUID id, String username, RoleAuthorities roleAuthorities) {
+        this.user = new User(id, username, "", roleAuthorities.getRoles());
+        this.password = "";
+        this.authorities = roleAuthorities.getAuthorities();
     }
 
 
@@ -0,0 +1,69 @@
+package com.viancis.auth.service;
+
+import com.viancis.auth.model.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Общие неизменяемые наборы ролей и authorities. Ролей мало, поэтому наборы для всех сочетаний
+ * строятся один раз при загрузке класса и выбираются по битовой маске без аллокаций.
+ */
+public final class RoleAuthorities {
+
+    private static final Role[] ROLES = Role.values();
+
+    private static final RoleAuthorities[] BY_MASK = new RoleAuthorities[1 << ROLES.length];
+
+    static {
+        for (int mask = 0; mask < BY_MASK.length; mask++) {
+            BY_MASK[mask] = new RoleAuthorities(mask);
+        }
+    }
+
+    private final Set<Role> roles;
+    private final Set<GrantedAuthority> authorities;
+
+    private RoleAuthorities(int mask) {
+        EnumSet<Role> roleSet = EnumSet.noneOf(Role.class);
+        Set<GrantedAuthority> authoritySet = new LinkedHashSet<>();
+        for (Role role : ROLES) {
+            if ((mask & (1 << role.ordinal())) != 0) {
+                roleSet.add(role);
+                authoritySet.add(new SimpleGrantedAuthority(role.getAuthority()));
+            }
+        }
+        this.roles = Collections.unmodifiableSet(roleSet);
+        this.authorities = Collections.unmodifiableSet(authoritySet);
+    }
+
+    // Имена ролей из токена; неизвестные имена, как и в Role.fromString, становятся ANONYM
+    public static RoleAuthorities of(Collection<?> roleNames) {
+        int mask = 0;
+        for (Object roleName : roleNames) {
+            mask |= 1 << Role.fromString(String.valueOf(roleName)).ordinal();
+        }
+        return BY_MASK[mask];
+    }
+
+    public static RoleAuthorities ofRoles(Collection<Role> roles) {
+        int mask = 0;
+        for (Role role : roles) {
+            mask |= 1 << role.ordinal();
+        }
+        return BY_MASK[mask];
+    }
+
+    public Set<Role> getRoles() {
+        return roles;
+    }
+
+    public Set<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
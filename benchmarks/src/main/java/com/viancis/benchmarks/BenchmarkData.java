@@ -0,0 +1,34 @@
+package com.viancis.benchmarks;
+
+import com.viancis.auth.model.Role;
+import com.viancis.auth.model.User;
+import com.viancis.common_point_user.model.Point;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static User user(String username) {
+        return new User(UUID.randomUUID(), username, "password", Set.of(Role.USER));
+    }
+
+    // Выстрелы равномерно по квадрату [-r, r] x [-r, r]: попадания и промахи во всех четвертях
+    static Point[] points(User user, int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Point[] points = new Point[count];
+        for (int i = 0; i < count; i++) {
+            double r = 1 + random.nextInt(5);
+            Point point = new Point(random.nextDouble(-r, r), random.nextDouble(-r, r), r,
+                    false, new Date(), 0L, user);
+            point.setId(UUID.randomUUID());
+            points[i] = point.checkInside();
+        }
+        return points;
+    }
+}
@@ -0,0 +1,67 @@
+package com.viancis.benchmarks;
+
+import com.viancis.common_point_user.area.AreaHitTester;
+import com.viancis.common_point_user.model.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка попадания: по одной точке через Point.checkInside и пакетом через AreaHitTester.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckInsideBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private Point[] points;
+    private double[] xs;
+    private double[] ys;
+    private double[] rs;
+    private boolean[] inside;
+
+    @Setup
+    public void setUp() {
+        points = BenchmarkData.points(BenchmarkData.user("bench"), SIZE, 42);
+        xs = new double[SIZE];
+        ys = new double[SIZE];
+        rs = new double[SIZE];
+        inside = new boolean[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            xs[i] = points[i].getX();
+            ys[i] = points[i].getY();
+            rs[i] = points[i].getR();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void pointCheckInside(Blackhole blackhole) {
+        for (Point point : points) {
+            blackhole.consume(point.checkInside().isInsideArea());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public boolean[] batchCheckInside() {
+        AreaHitTester.checkInside(xs, ys, rs, inside, SIZE);
+        return inside;
+    }
+}
@@ -0,0 +1,70 @@
+package com.viancis.benchmarks;
+
+import com.viancis.auth.filter.JwtTokenProvider;
+import com.viancis.auth.service.CustomUserDetails;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор токена так, как это делает JwtAuthenticationFilter на каждый запрос:
+ * validateToken, затем getUsername, getRoles и getId.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        Field validity = ReflectionUtils.findField(JwtTokenProvider.class, "validityInMilliseconds");
+        ReflectionUtils.makeAccessible(validity);
+        ReflectionUtils.setField(validity, tokenProvider, TimeUnit.HOURS.toMillis(1));
+        tokenProvider.init();
+        token = tokenProvider.generateToken(new CustomUserDetails(UUID.randomUUID(), "bench", Set.of("USER")));
+    }
+
+    @Benchmark
+    public void authenticateRequest(Blackhole blackhole) {
+        blackhole.consume(tokenProvider.validateToken(token));
+        blackhole.consume(tokenProvider.getUsername(token));
+        blackhole.consume(tokenProvider.getRoles(token));
+        blackhole.consume(tokenProvider.getId(token));
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    // Путь фильтра после кэша claims: один разбор на запрос
+    @Benchmark
+    public void authenticateRequestSingleParse(Blackhole blackhole) {
+        Claims claims = tokenProvider.getVerifiedClaims(token);
+        blackhole.consume(claims.getSubject());
+        blackhole.consume(tokenProvider.getRoles(claims));
+        blackhole.consume(tokenProvider.getId(claims));
+    }
+}
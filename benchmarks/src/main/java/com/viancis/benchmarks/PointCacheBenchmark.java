@@ -0,0 +1,115 @@
+package com.viancis.benchmarks;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.viancis.auth.model.User;
+import com.viancis.common_point_user.cache.PointLog;
+import com.viancis.common_point_user.cache.PointLogFactory;
+import com.viancis.common_point_user.model.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кэш точек под конкурентной нагрузкой: писатели дописывают журналы (updateCache),
+ * читатели берут снимки (getPoints). Кэш собирается так же, как в CacheConfig,
+ * операции повторяют CacheServiceImpl — модуль point упакован spring-boot-плагином и как зависимость не подключается.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointCacheBenchmark {
+
+    private static final int USERS = 256;
+    private static final int INITIAL_POINTS = 500;
+    // Журнал длиннее этого пересоздаётся, иначе за прогон он вырастает до размеров кучи
+    private static final int MAX_POINTS = 20_000;
+
+    @Param({"heap", "off-heap"})
+    public String store;
+
+    private Cache<UUID, PointLog> pointCache;
+    private PointLogFactory pointLogFactory;
+    private UUID[] userIds;
+    private Point[][] newPoints;
+    private List<List<Point>> initialPoints;
+
+    @Setup(Level.Trial)
+    public void setUpData() {
+        pointLogFactory = new PointLogFactory("off-heap".equals(store));
+        userIds = new UUID[USERS];
+        newPoints = new Point[USERS][];
+        initialPoints = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            User user = BenchmarkData.user("bench-" + i);
+            userIds[i] = user.getId();
+            newPoints[i] = BenchmarkData.points(user, 64, i);
+            initialPoints.add(List.of(BenchmarkData.points(user, INITIAL_POINTS, -i)));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpCache() {
+        if (pointCache != null) {
+            pointCache.invalidateAll();
+        }
+        pointCache = Caffeine.newBuilder()
+                .expireAfterAccess(10, TimeUnit.MINUTES)
+                .maximumWeight(5_000_000)
+                .<UUID, PointLog>weigher((userId, log) -> Math.max(1, log.size()))
+                .recordStats()
+                .build();
+        for (int i = 0; i < USERS; i++) {
+            pointCache.put(userIds[i], pointLogFactory.create(initialPoints.get(i)));
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public void updateCache() {
+        int user = ThreadLocalRandom.current().nextInt(USERS);
+        Point[] points = newPoints[user];
+        PointLog log = pointCache.getIfPresent(userIds[user]);
+        if (log == null) {
+            return;
+        }
+        if (log.size() >= MAX_POINTS) {
+            pointCache.put(userIds[user], pointLogFactory.create(initialPoints.get(user)));
+            return;
+        }
+        log.append(points[ThreadLocalRandom.current().nextInt(points.length)]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(6)
+    public Point getPoints() {
+        PointLog log = pointCache.getIfPresent(userIds[ThreadLocalRandom.current().nextInt(USERS)]);
+        if (log == null) {
+            return null;
+        }
+        List<Point> snapshot = log.snapshot();
+        return snapshot.get(snapshot.size() - 1);
+    }
+}
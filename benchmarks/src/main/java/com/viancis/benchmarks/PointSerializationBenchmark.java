@@ -0,0 +1,65 @@
+package com.viancis.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.viancis.common_point_user.dto.PointDTO;
+import com.viancis.common_point_user.model.Point;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Путь ответа GET /api/points: Point -> PointDTO -> JSON.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PointSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Point point;
+    private PointDTO dto;
+    private List<Point> page;
+
+    @Setup
+    public void setUp() {
+        Point[] points = BenchmarkData.points(BenchmarkData.user("bench"), 100, 7);
+        point = points[0];
+        dto = new PointDTO(point);
+        page = List.of(points);
+    }
+
+    @Benchmark
+    public PointDTO toDto() {
+        return new PointDTO(point);
+    }
+
+    @Benchmark
+    public byte[] serializeDto() throws Exception {
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    // Страница из 100 точек целиком, как её отдаёт контроллер
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        List<PointDTO> dtos = new ArrayList<>(page.size());
+        for (Point p : page) {
+            dtos.add(new PointDTO(p));
+        }
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
@@ -0,0 +1,64 @@
+package com.viancis.benchmarks;
+
+import com.viancis.auth.model.User;
+import com.viancis.common_point_user.model.Point;
+import com.viancis.common_point_user.notification.UserPointsStatistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Учёт уведомлений о точках из нескольких потоков, как при конкурентных потребителях очереди.
+ * Логи уровня INFO отключены (logback.xml), поэтому измеряется сам учёт.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class UserPointsStatisticsBenchmark {
+
+    private static final int USERS = 1024;
+
+    private UserPointsStatistics statistics;
+    private UUID[] userIds;
+    private Point[][] points;
+
+    @Setup
+    public void setUp() {
+        statistics = new UserPointsStatistics();
+        userIds = new UUID[USERS];
+        points = new Point[USERS][];
+        for (int i = 0; i < USERS; i++) {
+            User user = BenchmarkData.user("bench-" + i);
+            userIds[i] = user.getId();
+            points[i] = BenchmarkData.points(user, 16, i);
+        }
+    }
+
+    @Benchmark
+    public void processPoint() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int user = random.nextInt(USERS);
+        statistics.processPoint(userIds[user], points[user][random.nextInt(points[user].length)]);
+    }
+
+    @Benchmark
+    public int totalPoints() {
+        return statistics.getTotalPoints();
+    }
+}
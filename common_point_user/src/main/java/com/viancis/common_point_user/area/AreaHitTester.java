@@ -0,0 +1,58 @@
+package com.viancis.common_point_user.area;
+
+/**
+ * Проверка попадания точек в область (треугольник, круг, квадрат).
+ * Пакетный вариант работает по примитивным колонкам x/y/r без построения сущностей
+ * и даёт ровно тот же результат, что и {@link com.viancis.common_point_user.model.Point#checkInside()}.
+ */
+public final class AreaHitTester {
+
+    private AreaHitTester() {
+    }
+
+    public static boolean isInside(double x, double y, double r) {
+        if (x >= 0 && y >= 0) {
+            // Треугольник: x + y <= r * 2
+            return x + y <= r * 2;
+        } else if (x <= 0 && y >= 0) {
+            // Круг: x^2 + y^2 <= r^2
+            return x * x + y * y <= r * r;
+        } else if (x >= 0 && y <= 0) {
+            // Квадрат: x и y в пределах от -r * 2 до r * 2
+            return x >= -r * 2 && x <= r * 2 && y >= -r * 2 && y <= r * 2;
+        }
+        // Для всех остальных случаев
+        return false;
+    }
+
+    public static boolean[] checkInside(double[] xs, double[] ys, double[] rs) {
+        if (xs.length != ys.length || xs.length != rs.length) {
+            throw new IllegalArgumentException("Columns x, y, r must have the same length");
+        }
+        boolean[] inside = new boolean[xs.length];
+        checkInside(xs, ys, rs, inside, xs.length);
+        return inside;
+    }
+
+    /**
+     * Цикл без ветвлений: квадранты вычисляются масками в том же порядке, что и в {@link #isInside},
+     * поэтому граничные случаи (x = 0, y = 0, -0.0, NaN) совпадают побитово, а JIT может
+     * развернуть и векторизовать тело цикла.
+     */
+    public static void checkInside(double[] xs, double[] ys, double[] rs, boolean[] inside, int length) {
+        for (int i = 0; i < length; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            double r = rs[i];
+            double r2 = r * 2;
+
+            boolean triangle = x >= 0 & y >= 0;
+            boolean circle = !triangle & x <= 0 & y >= 0;
+            boolean square = !triangle & !circle & x >= 0 & y <= 0;
+
+            inside[i] = (triangle & x + y <= r2)
+                    | (circle & x * x + y * y <= r * r)
+                    | (square & x >= -r2 & x <= r2 & y >= -r2 & y <= r2);
+        }
+    }
+}
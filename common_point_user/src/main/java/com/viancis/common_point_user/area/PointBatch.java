@@ -0,0 +1,53 @@
+package com.viancis.common_point_user.area;
+
+import com.viancis.common_point_user.model.PointRequest;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Пакет выстрелов в колоночном виде: x/y/r лежат в отдельных массивах double,
+ * результат проверки — в массиве boolean. Проверка выполняется одним проходом.
+ */
+@Getter
+public class PointBatch {
+
+    private final double[] x;
+    private final double[] y;
+    private final double[] r;
+    private final boolean[] inside;
+    private final int size;
+
+    private long executionTime;
+
+    public PointBatch(int size) {
+        this.size = size;
+        this.x = new double[size];
+        this.y = new double[size];
+        this.r = new double[size];
+        this.inside = new boolean[size];
+    }
+
+    public static PointBatch of(List<PointRequest> requests) {
+        PointBatch batch = new PointBatch(requests.size());
+        for (int i = 0; i < batch.size; i++) {
+            PointRequest request = requests.get(i);
+            batch.x[i] = request.getX();
+            batch.y[i] = request.getY();
+            batch.r[i] = request.getR();
+        }
+        return batch;
+    }
+
+    public PointBatch checkInside() {
+        long startTime = System.nanoTime();
+        AreaHitTester.checkInside(x, y, r, inside, size);
+        executionTime = System.nanoTime() - startTime;
+        return this;
+    }
+
+    // Время проверки, приходящееся на один выстрел
+    public long executionTimePerPoint() {
+        return size == 0 ? 0 : executionTime / size;
+    }
+}
@@ -0,0 +1,141 @@
+package com.viancis.common_point_user.cache;
+
+import com.viancis.auth.model.User;
+import com.viancis.common_point_user.model.Point;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Журнал точек одного пользователя в куче: только добавление, без блокировок.
+ * Состояние неизменяемо (заполненные блоки по 64 точки + неполный хвост) и меняется одним CAS,
+ * поэтому снимок для чтения — это одна обёртка над текущим состоянием, без копирования списка.
+ */
+public final class HeapPointLog implements PointLog {
+
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final Point[] EMPTY_TAIL = new Point[0];
+    private static final Point[][] EMPTY_CHUNKS = new Point[0][];
+
+    private final AtomicReference<State> state;
+
+    // Ссылка на пользователя из первой добавленной точки
+    private volatile User user;
+
+    public HeapPointLog() {
+        this.state = new AtomicReference<>(new State(EMPTY_CHUNKS, EMPTY_TAIL, 0));
+    }
+
+    public static HeapPointLog of(Collection<? extends Point> points) {
+        Point[] all = points.toArray(new Point[0]);
+        int fullChunks = all.length >>> CHUNK_SHIFT;
+        Point[][] chunks = new Point[fullChunks][];
+        for (int i = 0; i < fullChunks; i++) {
+            chunks[i] = Arrays.copyOfRange(all, i << CHUNK_SHIFT, (i + 1) << CHUNK_SHIFT);
+        }
+        Point[] tail = Arrays.copyOfRange(all, fullChunks << CHUNK_SHIFT, all.length);
+        HeapPointLog log = new HeapPointLog();
+        log.state.set(new State(chunks, tail, all.length));
+        if (all.length > 0) {
+            log.user = all[0].getUser();
+        }
+        return log;
+    }
+
+    @Override
+    public void append(Point point) {
+        if (user == null) {
+            user = point.getUser();
+        }
+        State current;
+        State next;
+        do {
+            current = state.get();
+            next = current.append(point);
+        } while (!state.compareAndSet(current, next));
+    }
+
+    @Override
+    public List<Point> snapshot() {
+        return new Snapshot(state.get());
+    }
+
+    @Override
+    public int size() {
+        return state.get().size;
+    }
+
+    @Override
+    public User user() {
+        return user;
+    }
+
+    @Override
+    public boolean contains(UUID pointId) {
+        State current = state.get();
+        for (int i = current.size - 1; i >= 0; i--) {
+            if (pointId.equals(current.get(i).getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class State {
+        // Заполненные блоки и хвост после публикации не меняются
+        final Point[][] chunks;
+        final Point[] tail;
+        final int size;
+
+        State(Point[][] chunks, Point[] tail, int size) {
+            this.chunks = chunks;
+            this.tail = tail;
+            this.size = size;
+        }
+
+        State append(Point point) {
+            Point[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = point;
+            if (newTail.length == CHUNK_SIZE) {
+                Point[][] newChunks = Arrays.copyOf(chunks, chunks.length + 1);
+                newChunks[chunks.length] = newTail;
+                return new State(newChunks, EMPTY_TAIL, size + 1);
+            }
+            return new State(chunks, newTail, size + 1);
+        }
+
+        Point get(int index) {
+            int chunk = index >>> CHUNK_SHIFT;
+            return chunk < chunks.length ? chunks[chunk][index & CHUNK_MASK] : tail[index & CHUNK_MASK];
+        }
+    }
+
+    private static final class Snapshot extends AbstractList<Point> implements RandomAccess {
+        private final State state;
+
+        Snapshot(State state) {
+            this.state = state;
+        }
+
+        @Override
+        public Point get(int index) {
+            if (index < 0 || index >= state.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + state.size);
+            }
+            return state.get(index);
+        }
+
+        @Override
+        public int size() {
+            return state.size;
+        }
+    }
+}
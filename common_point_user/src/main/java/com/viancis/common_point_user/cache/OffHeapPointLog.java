@@ -0,0 +1,224 @@
+package com.viancis.common_point_user.cache;
+
+import com.viancis.auth.model.User;
+import com.viancis.common_point_user.model.Point;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Журнал точек одного пользователя вне кучи: колонки x/y/r/timestamp/executionTime/id лежат
+ * в direct ByteBuffer-блоках, признак попадания — битами. В куче остаются только блоки и ссылка на User,
+ * поэтому объём кэша не влияет на паузы GC. Сущности Point собираются при чтении снимка.
+ * Запись идёт под монитором журнала, чтение — без блокировок.
+ */
+public final class OffHeapPointLog implements PointLog {
+
+    private static final int FIRST_BLOCK_CAPACITY = 64;
+    private static final int MAX_BLOCK_CAPACITY = 4096;
+
+    // 7 колонок по 8 байт + 1 бит на признак попадания
+    private static final int COLUMNS = 7;
+
+    private static final AtomicLong ALLOCATED_BYTES = new AtomicLong();
+
+    // Все точки журнала принадлежат одному пользователю, ссылка берётся из первой добавленной точки
+    private volatile User user;
+
+    private volatile Blocks blocks = new Blocks(new ByteBuffer[0], new int[0]);
+
+    private volatile int size;
+
+    public static OffHeapPointLog of(Collection<? extends Point> points) {
+        OffHeapPointLog log = new OffHeapPointLog();
+        points.forEach(log::append);
+        return log;
+    }
+
+    public static long allocatedBytes() {
+        return ALLOCATED_BYTES.get();
+    }
+
+    @Override
+    public synchronized void append(Point point) {
+        if (user == null) {
+            user = point.getUser();
+        }
+        int index = size;
+        Blocks current = blocks;
+        int block = current.blockOf(index);
+        if (block < 0 || index - current.starts[block] >= capacity(current.buffers[block])) {
+            current = current.grow(index);
+            blocks = current;
+            block = current.buffers.length - 1;
+        }
+        ByteBuffer buffer = current.buffers[block];
+        int capacity = capacity(buffer);
+        int slot = index - current.starts[block];
+
+        UUID id = point.getId();
+        buffer.putDouble(offset(0, capacity, slot), point.getX());
+        buffer.putDouble(offset(1, capacity, slot), point.getY());
+        buffer.putDouble(offset(2, capacity, slot), point.getR());
+        buffer.putLong(offset(3, capacity, slot), point.getTimestamp() != null ? point.getTimestamp().getTime() : 0L);
+        buffer.putLong(offset(4, capacity, slot), point.getExecutionTime());
+        buffer.putLong(offset(5, capacity, slot), id.getMostSignificantBits());
+        buffer.putLong(offset(6, capacity, slot), id.getLeastSignificantBits());
+
+        int flagOffset = COLUMNS * 8 * capacity + (slot >>> 3);
+        byte flags = buffer.get(flagOffset);
+        int mask = 1 << (slot & 7);
+        buffer.put(flagOffset, (byte) (point.isInsideArea() ? flags | mask : flags & ~mask));
+
+        // Публикация: читатели видят только записанные строки
+        size = index + 1;
+    }
+
+    @Override
+    public List<Point> snapshot() {
+        int snapshotSize = size;
+        return new Snapshot(blocks, snapshotSize);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public User user() {
+        return user;
+    }
+
+    // Сравниваются только колонки id, по блокам с конца
+    @Override
+    public boolean contains(UUID pointId) {
+        int snapshotSize = size;
+        Blocks source = blocks;
+        long most = pointId.getMostSignificantBits();
+        long least = pointId.getLeastSignificantBits();
+        int end = snapshotSize;
+        for (int block = source.blockOf(snapshotSize - 1); block >= 0; block--) {
+            ByteBuffer buffer = source.buffers[block];
+            int capacity = capacity(buffer);
+            for (int slot = end - source.starts[block] - 1; slot >= 0; slot--) {
+                if (buffer.getLong(offset(6, capacity, slot)) == least
+                        && buffer.getLong(offset(5, capacity, slot)) == most) {
+                    return true;
+                }
+            }
+            end = source.starts[block];
+        }
+        return false;
+    }
+
+    // Снятие журнала с учёта при вытеснении. Память буферов освобождается позже, когда GC соберёт объекты
+    // ByteBuffer (их могут ещё держать снимки читателей), поэтому занятая память видна только в пуле direct JVM.
+    // При исчерпании -XX:MaxDirectMemorySize JVM сама запускает GC перед новой аллокацией
+    public void release() {
+        ALLOCATED_BYTES.addAndGet(-blocks.bytes());
+    }
+
+    private Point read(Blocks source, int index) {
+        int block = source.blockOf(index);
+        ByteBuffer buffer = source.buffers[block];
+        int capacity = capacity(buffer);
+        int slot = index - source.starts[block];
+
+        UUID id = new UUID(buffer.getLong(offset(5, capacity, slot)), buffer.getLong(offset(6, capacity, slot)));
+        boolean inside = (buffer.get(COLUMNS * 8 * capacity + (slot >>> 3)) & (1 << (slot & 7))) != 0;
+        Point point = new Point(
+                buffer.getDouble(offset(0, capacity, slot)),
+                buffer.getDouble(offset(1, capacity, slot)),
+                buffer.getDouble(offset(2, capacity, slot)),
+                inside,
+                new Date(buffer.getLong(offset(3, capacity, slot))),
+                buffer.getLong(offset(4, capacity, slot)),
+                user
+        );
+        point.setId(id);
+        return point;
+    }
+
+    private static int offset(int column, int capacity, int slot) {
+        return (column * capacity + slot) * 8;
+    }
+
+    private static int capacity(ByteBuffer buffer) {
+        return buffer.capacity() * 8 / (COLUMNS * 64 + 1);
+    }
+
+    private static int bytesFor(int capacity) {
+        return COLUMNS * 8 * capacity + capacity / 8;
+    }
+
+    private static final class Blocks {
+        final ByteBuffer[] buffers;
+        // Индекс первой строки каждого блока
+        final int[] starts;
+
+        Blocks(ByteBuffer[] buffers, int[] starts) {
+            this.buffers = buffers;
+            this.starts = starts;
+        }
+
+        // Последний блок, начинающийся не позже index; -1, если блоков нет
+        int blockOf(int index) {
+            int position = Arrays.binarySearch(starts, index);
+            return position >= 0 ? position : -position - 2;
+        }
+
+        Blocks grow(int start) {
+            int capacity = buffers.length == 0
+                    ? FIRST_BLOCK_CAPACITY
+                    : Math.min(capacity(buffers[buffers.length - 1]) * 2, MAX_BLOCK_CAPACITY);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bytesFor(capacity)).order(ByteOrder.nativeOrder());
+            ALLOCATED_BYTES.addAndGet(buffer.capacity());
+
+            ByteBuffer[] grownBuffers = Arrays.copyOf(buffers, buffers.length + 1);
+            grownBuffers[buffers.length] = buffer;
+            int[] grownStarts = Arrays.copyOf(starts, starts.length + 1);
+            grownStarts[starts.length] = start;
+            return new Blocks(grownBuffers, grownStarts);
+        }
+
+        long bytes() {
+            long total = 0;
+            for (ByteBuffer buffer : buffers) {
+                total += buffer.capacity();
+            }
+            return total;
+        }
+    }
+
+    private final class Snapshot extends AbstractList<Point> implements RandomAccess {
+        private final Blocks source;
+        private final int size;
+
+        Snapshot(Blocks source, int size) {
+            this.source = source;
+            this.size = size;
+        }
+
+        @Override
+        public Point get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return read(source, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
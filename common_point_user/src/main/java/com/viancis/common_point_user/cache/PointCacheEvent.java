@@ -0,0 +1,29 @@
+package com.viancis.common_point_user.cache;
+
+import com.viancis.common_point_user.model.Point;
+
+import java.util.UUID;
+
+/**
+ * Событие изменения точки, по которому кэш дописывает или сбрасывает журнал пользователя.
+ */
+public record PointCacheEvent(Type type, UUID userId, Point point) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static PointCacheEvent created(UUID userId, Point point) {
+        return new PointCacheEvent(Type.CREATED, userId, point);
+    }
+
+    public static PointCacheEvent updated(UUID userId, Point point) {
+        return new PointCacheEvent(Type.UPDATED, userId, point);
+    }
+
+    public static PointCacheEvent deleted(UUID userId, Point point) {
+        return new PointCacheEvent(Type.DELETED, userId, point);
+    }
+}
@@ -0,0 +1,44 @@
+package com.viancis.common_point_user.cache;
+
+import com.viancis.common_point_user.model.Point;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Сообщение согласования кэшей между узлами point. origin и version — узел-отправитель и его
+ * сквозной номер сообщения: по пропуску номера получатель понимает, что потерял изменения.
+ * Для CREATED передаются поля точки без пользователя, для UPDATED/DELETED — только идентификаторы.
+ */
+public record PointCacheMessage(String origin,
+                                long version,
+                                PointCacheEvent.Type type,
+                                UUID userId,
+                                UUID pointId,
+                                double x,
+                                double y,
+                                double r,
+                                boolean insideArea,
+                                long timestamp,
+                                long executionTime) implements Serializable {
+
+    public static PointCacheMessage of(String origin, long version, PointCacheEvent event) {
+        Point point = event.point();
+        if (event.type() != PointCacheEvent.Type.CREATED) {
+            return new PointCacheMessage(origin, version, event.type(), event.userId(), point.getId(),
+                    0, 0, 0, false, 0, 0);
+        }
+        return new PointCacheMessage(origin, version, event.type(), event.userId(), point.getId(),
+                point.getX(), point.getY(), point.getR(), point.isInsideArea(),
+                point.getTimestamp() != null ? point.getTimestamp().getTime() : 0L,
+                point.getExecutionTime());
+    }
+
+    // Точка без пользователя: его подставляет узел-получатель из своего журнала
+    public Point toPoint() {
+        Point point = new Point(x, y, r, insideArea, new Date(timestamp), executionTime, null);
+        point.setId(pointId);
+        return point;
+    }
+}
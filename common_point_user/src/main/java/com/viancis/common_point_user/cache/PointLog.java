@@ -0,0 +1,27 @@
+package com.viancis.common_point_user.cache;
+
+import com.viancis.auth.model.User;
+import com.viancis.common_point_user.model.Point;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Журнал точек одного пользователя в кэше: только добавление и чтение снимков.
+ */
+public interface PointLog {
+
+    // Журнал в кэше дописывается только внутри compute по его ключу, иначе Caffeine не пересчитает вес записи
+    void append(Point point);
+
+    // Неизменяемый снимок на момент вызова
+    List<Point> snapshot();
+
+    int size();
+
+    // Владелец журнала (все точки принадлежат одному пользователю); null, пока журнал пуст
+    User user();
+
+    // Есть ли в журнале точка с таким id. Линейный проход с конца без сборки сущностей Point
+    boolean contains(UUID pointId);
+}
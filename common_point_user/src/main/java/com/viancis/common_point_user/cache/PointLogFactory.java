@@ -0,0 +1,25 @@
+package com.viancis.common_point_user.cache;
+
+import com.viancis.common_point_user.model.Point;
+
+import java.util.List;
+
+/**
+ * Создаёт журналы точек выбранного типа: в куче или вне её (point.cache.store=heap|off-heap).
+ */
+public class PointLogFactory {
+
+    private final boolean offHeap;
+
+    public PointLogFactory(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    public PointLog create(List<Point> points) {
+        return offHeap ? OffHeapPointLog.of(points) : HeapPointLog.of(points);
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+}
@@ -0,0 +1,114 @@
+package com.viancis.common_point_user.config;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Отдельные ограниченные пулы под виды нагрузки: db — блокирующие вызовы репозиториев,
+ * cpu — вычисления без ввода-вывода, messaging — рассылка событий и сообщений.
+ * Методы @Async(DB_EXECUTOR) выполняются целиком на потоке пула, поэтому @Transactional открывается там же.
+ * При переполнении очереди задача выполняется вызывающим потоком. С executors.virtual-threads=true
+ * пулы заменяются виртуальными потоками (нужна JDK 21+); конкурентность к БД тогда ограничивает пул соединений.
+ */
+@Configuration
+@EnableAsync(proxyTargetClass = true)
+@Slf4j
+public class AsyncExecutorsConfig implements AsyncConfigurer {
+
+    public static final String DB_EXECUTOR = "dbExecutor";
+    public static final String CPU_EXECUTOR = "cpuExecutor";
+    public static final String MESSAGING_EXECUTOR = "messagingExecutor";
+
+    @Value("${executors.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${executors.db.threads:10}")
+    private int dbThreads;
+
+    @Value("${executors.db.queue-capacity:1000}")
+    private int dbQueueCapacity;
+
+    @Value("${executors.cpu.threads:0}")
+    private int cpuThreads;
+
+    @Value("${executors.cpu.queue-capacity:1000}")
+    private int cpuQueueCapacity;
+
+    @Value("${executors.messaging.threads:4}")
+    private int messagingThreads;
+
+    @Value("${executors.messaging.queue-capacity:10000}")
+    private int messagingQueueCapacity;
+
+    @Bean(name = DB_EXECUTOR)
+    public ExecutorService dbExecutor() {
+        return executor("db", dbThreads, dbQueueCapacity);
+    }
+
+    @Bean(name = CPU_EXECUTOR)
+    public ExecutorService cpuExecutor() {
+        int threads = cpuThreads > 0 ? cpuThreads : Runtime.getRuntime().availableProcessors();
+        return executor("cpu", threads, cpuQueueCapacity);
+    }
+
+    @Bean(name = MESSAGING_EXECUTOR)
+    public ExecutorService messagingExecutor() {
+        return executor("messaging", messagingThreads, messagingQueueCapacity);
+    }
+
+    // @Async без имени пула уходит в db: большинство асинхронных методов сервисов — обращения к репозиториям
+    @Override
+    public Executor getAsyncExecutor() {
+        return dbExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) -> log.error("Async method {} failed: {}", method.getName(), ex.getMessage(), ex);
+    }
+
+    private ExecutorService executor(String name, int threads, int queueCapacity) {
+        ExecutorService executor = virtualThreads ? virtualThreadExecutor(name) : null;
+        if (executor == null) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return ExecutorServiceMetrics.monitor(Metrics.globalRegistry, executor, name, Tags.of("workload", name));
+    }
+
+    // Исходники собираются под 16, поэтому фабрика виртуальных потоков вызывается через reflection
+    private static ExecutorService virtualThreadExecutor(String name) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            log.warn("Virtual threads are not available in this JVM, executor {} falls back to a bounded pool", name);
+            return null;
+        }
+    }
+}
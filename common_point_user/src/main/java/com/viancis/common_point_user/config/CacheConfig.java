@@ -1,24 +1,83 @@
 package com.viancis.common_point_user.config;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.viancis.common_point_user.model.Point;
+import com.viancis.common_point_user.cache.OffHeapPointLog;
+import com.viancis.common_point_user.cache.PointLog;
+import com.viancis.common_point_user.cache.PointLogFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.List;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class CacheConfig {
 
+    @Value("${point.cache.max-points:5000000}")
+    private long maxPoints;
+
+    @Value("${point.cache.expire-after-access-minutes:10}")
+    private long expireAfterAccessMinutes;
+
+    @Value("${point.cache.refresh-after-write-seconds:60}")
+    private long refreshAfterWriteSeconds;
+
+    @Bean
+    public PointLogFactory pointLogFactory(@Value("${point.cache.store:heap}") String store) {
+        boolean offHeap = "off-heap".equalsIgnoreCase(store);
+        if (offHeap) {
+            // Буферы вытесненных журналов освобождает GC, поэтому фактически занятая память берётся из пула direct JVM,
+            // а учёт журналов показывает, сколько из неё принадлежит журналам в кэше
+            BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                    .filter(pool -> "direct".equals(pool.getName()))
+                    .findFirst()
+                    .orElse(null);
+            if (direct != null) {
+                Gauge.builder("points.cache.offheap.bytes", direct, BufferPoolMXBean::getMemoryUsed)
+                        .description("Direct memory retained by the JVM, including buffers of evicted logs not yet collected")
+                        .baseUnit("bytes")
+                        .register(Metrics.globalRegistry);
+            }
+            Gauge.builder("points.cache.offheap.live.bytes", OffHeapPointLog::allocatedBytes)
+                    .description("Direct memory of off-heap point logs still in the cache")
+                    .baseUnit("bytes")
+                    .register(Metrics.globalRegistry);
+        }
+        return new PointLogFactory(offHeap);
+    }
+
+    /**
+     * Записи живут, пока к ним обращаются, и согласуются событиями изменения точек, а не коротким TTL.
+     * Размер ограничен суммарным числом точек: вес — текущая длина журнала. Caffeine считает вес только
+     * при записи, поэтому журнал дописывается внутри asMap().computeIfPresent, и вес пересчитывается с каждой точкой.
+     * Если в контексте есть загрузчик, горячие записи перечитываются в фоне (refresh-ahead).
+     */
     @Bean
-    public Cache<UUID, List<Point>> pointCache() {
-        return Caffeine.newBuilder()
-                .expireAfterWrite(10, TimeUnit.SECONDS)
-                .maximumSize(1000)
+    public Cache<UUID, PointLog> pointCache(ObjectProvider<CacheLoader<UUID, PointLog>> pointLogLoader) {
+        Caffeine<UUID, PointLog> builder = Caffeine.newBuilder()
+                .expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES)
+                .maximumWeight(maxPoints)
+                .<UUID, PointLog>weigher((userId, log) -> Math.max(1, log.size()))
                 .recordStats()
-                .build();
+                .removalListener((userId, log, cause) -> {
+                    if (log instanceof OffHeapPointLog) {
+                        ((OffHeapPointLog) log).release();
+                    }
+                });
+        CacheLoader<UUID, PointLog> loader = pointLogLoader.getIfAvailable();
+        if (loader == null) {
+            return builder.build();
+        }
+        return builder
+                .refreshAfterWrite(refreshAfterWriteSeconds, TimeUnit.SECONDS)
+                .build(loader);
     }
-}
\ No newline at end of file
+}
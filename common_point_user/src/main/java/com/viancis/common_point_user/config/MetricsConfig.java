@@ -0,0 +1,25 @@
+package com.viancis.common_point_user.config;
+
+import com.viancis.common_point_user.metrics.CacheMetricsBeanPostProcessor;
+import com.viancis.common_point_user.metrics.ThreadTelemetry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Метрики из пакета metrics. Приложения сканируют только common_point_user.config,
+ * поэтому компоненты метрик объявляются здесь.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public ThreadTelemetry threadTelemetry() {
+        return new ThreadTelemetry();
+    }
+
+    // static: постпроцессор создаётся раньше остальных бинов и не должен тянуть за собой конфигурацию
+    @Bean
+    public static CacheMetricsBeanPostProcessor cacheMetricsBeanPostProcessor() {
+        return new CacheMetricsBeanPostProcessor();
+    }
+}
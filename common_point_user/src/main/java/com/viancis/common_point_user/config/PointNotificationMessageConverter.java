@@ -0,0 +1,118 @@
+package com.viancis.common_point_user.config;
+
+import com.viancis.common_point_user.dto.PointNotification;
+import com.viancis.common_point_user.model.Point;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.SmartMessageConverter;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Компактный двоичный формат PointNotification (74 байта против нескольких килобайт JSON с сущностями Point и User).
+ * Формат выбирается по content-type: двоичные сообщения разбираются здесь, всё остальное — Jackson-конвертером,
+ * поэтому потребители читают оба формата, а отправитель переключается настройкой point.notifications.format.
+ *
+ * Версия 1, big-endian: version(1) | userId(16) | pointId(16) | x(8) | y(8) | r(8) | flags(1) | timestamp(8) | executionTime(8).
+ * Пользователь точки не передаётся: вместо вложенного User есть только его id.
+ * Тот же формат записи используется для дискового буфера уведомлений.
+ */
+public class PointNotificationMessageConverter implements SmartMessageConverter {
+
+    public static final String CONTENT_TYPE = "application/x-point-notification";
+
+    private static final byte VERSION = 1;
+    public static final int SIZE = 1 + 16 + 16 + 8 * 3 + 1 + 8 + 8;
+    private static final byte INSIDE = 1;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final SmartMessageConverter delegate;
+    private final boolean binary;
+
+    public PointNotificationMessageConverter(SmartMessageConverter delegate, boolean binary) {
+        this.delegate = delegate;
+        this.binary = binary;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) throws MessageConversionException {
+        if (!binary || !(object instanceof PointNotification notification)) {
+            return delegate.toMessage(object, messageProperties);
+        }
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(SIZE);
+        return new Message(encode(notification), messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) throws MessageConversionException {
+        MessageProperties properties = message.getMessageProperties();
+        if (properties == null || !CONTENT_TYPE.equals(properties.getContentType())) {
+            return delegate.fromMessage(message);
+        }
+        return decode(message.getBody());
+    }
+
+    // Подсказка типа из сигнатуры @RabbitListener нужна Jackson-конвертеру для JSON-сообщений
+    @Override
+    public Object fromMessage(Message message, Object conversionHint) throws MessageConversionException {
+        MessageProperties properties = message.getMessageProperties();
+        if (properties == null || !CONTENT_TYPE.equals(properties.getContentType())) {
+            return delegate.fromMessage(message, conversionHint);
+        }
+        return decode(message.getBody());
+    }
+
+    public static byte[] encode(PointNotification notification) {
+        Point point = notification.point();
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.put(VERSION);
+        putUuid(buffer, notification.user());
+        putUuid(buffer, point.getId());
+        buffer.putDouble(point.getX());
+        buffer.putDouble(point.getY());
+        buffer.putDouble(point.getR());
+        buffer.put(point.isInsideArea() ? INSIDE : 0);
+        buffer.putLong(point.getTimestamp() != null ? point.getTimestamp().getTime() : NO_TIMESTAMP);
+        buffer.putLong(point.getExecutionTime());
+        return buffer.array();
+    }
+
+    public static PointNotification decode(byte[] body) {
+        if (body.length < SIZE) {
+            throw new MessageConversionException("Point notification is too short: " + body.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new MessageConversionException("Unsupported point notification version: " + version);
+        }
+        UUID user = getUuid(buffer);
+        UUID pointId = getUuid(buffer);
+        double x = buffer.getDouble();
+        double y = buffer.getDouble();
+        double r = buffer.getDouble();
+        boolean inside = (buffer.get() & INSIDE) != 0;
+        long timestamp = buffer.getLong();
+        long executionTime = buffer.getLong();
+
+        Point point = new Point(x, y, r, inside, timestamp != NO_TIMESTAMP ? new Date(timestamp) : null, executionTime, null);
+        point.setId(pointId);
+        return new PointNotification(user, point);
+    }
+
+    // Нулевой UUID означает отсутствие значения
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid != null ? uuid.getMostSignificantBits() : 0L);
+        buffer.putLong(uuid != null ? uuid.getLeastSignificantBits() : 0L);
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        long msb = buffer.getLong();
+        long lsb = buffer.getLong();
+        return msb == 0L && lsb == 0L ? null : new UUID(msb, lsb);
+    }
+}
@@ -1,21 +1,69 @@
 package com.viancis.common_point_user.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
 @Configuration
 public class RabbitConfig {
 
+    public static final String POINT_CACHE_EXCHANGE = "point.cache.invalidation";
+
+    // Уведомления о точках, разложенные по очередям-партициям по id пользователя
+    public static final String POINT_NOTIFICATIONS_EXCHANGE = "user.notifications.point.partitioned";
+
+    public static final String POINT_NOTIFICATIONS_PARTITION_PREFIX = "user.notifications.point.p";
+
+    // Прежняя общая очередь уведомлений, до перехода на партиции
+    public static final String LEGACY_POINT_NOTIFICATIONS_QUEUE = "user.notifications.point";
+
+    // Очередь партиции пользователя: уведомления одного пользователя всегда идут через одну очередь и сохраняют порядок
+    public static int notificationPartition(UUID userId, int partitions) {
+        return Math.floorMod(userId.hashCode(), partitions);
+    }
+
+    public static String notificationPartitionQueue(int partition) {
+        return POINT_NOTIFICATIONS_PARTITION_PREFIX + partition;
+    }
+
     @Bean
     public Queue missNotificationQueue() {
-        return new Queue("user.notifications.point", true);
+        return new Queue(LEGACY_POINT_NOTIFICATIONS_QUEUE, true);
+    }
+
+    @Bean
+    public Declarables notificationPartitionQueues(@Value("${point.notifications.partitions:4}") int partitions) {
+        DirectExchange exchange = new DirectExchange(POINT_NOTIFICATIONS_EXCHANGE, true, false);
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(exchange);
+        for (int partition = 0; partition < partitions; partition++) {
+            Queue queue = new Queue(notificationPartitionQueue(partition), true);
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange).with(String.valueOf(partition)));
+        }
+        return new Declarables(declarables);
+    }
+
+    // Согласование кэшей точек: каждый узел point привязывает к обменнику свою временную очередь
+    @Bean
+    public FanoutExchange pointCacheExchange() {
+        return new FanoutExchange(POINT_CACHE_EXCHANGE, true, false);
     }
 
     @Bean
@@ -27,9 +75,17 @@ public class RabbitConfig {
         return converter;
     }
 
+    // JSON для всех сообщений, PointNotification — в двоичном формате, если он включён
+    @Bean
+    public PointNotificationMessageConverter pointNotificationMessageConverter(
+            Jackson2JsonMessageConverter jackson2JsonMessageConverter,
+            @Value("${point.notifications.format:json}") String format) {
+        return new PointNotificationMessageConverter(jackson2JsonMessageConverter, "binary".equalsIgnoreCase(format));
+    }
+
     @Bean
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory,
-                                         Jackson2JsonMessageConverter messageConverter) {
+                                         PointNotificationMessageConverter messageConverter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(messageConverter);
         return template;
@@ -38,7 +94,7 @@ public class RabbitConfig {
     @Bean
     public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(
             ConnectionFactory connectionFactory,
-            Jackson2JsonMessageConverter messageConverter) {
+            PointNotificationMessageConverter messageConverter) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(messageConverter);
@@ -0,0 +1,86 @@
+package com.viancis.common_point_user.config;
+
+import com.viancis.common_point_user.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Чтение с реплик: при datasource.replicas.enabled=true основным DataSource становится маршрутизатор,
+ * который отдаёт транзакции @Transactional(readOnly = true) репликам из datasource.replicas.urls,
+ * а всё остальное (записи, Flyway, запросы вне транзакции) — primary из spring.datasource.*.
+ * У каждого пула своё имя (primary, replica-0, ...), метрики Hikari публикуются с тегом pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Value("${datasource.replicas.urls}")
+    private List<String> urls;
+
+    // По умолчанию учётные данные реплик совпадают с primary
+    @Value("${datasource.replicas.username:${spring.datasource.username}}")
+    private String username;
+
+    @Value("${datasource.replicas.password:${spring.datasource.password}}")
+    private String password;
+
+    @Value("${datasource.replicas.pool-size:10}")
+    private int poolSize;
+
+    @Value("${datasource.replicas.max-lag-ms:5000}")
+    private long maxLagMillis;
+
+    @Value("${datasource.replicas.check-interval-ms:1000}")
+    private long checkIntervalMillis;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        dataSource.setMetricRegistry(Metrics.globalRegistry);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                             DataSourceProperties properties) {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + i;
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setDriverClassName(properties.getDriverClassName());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // Недоступная при старте реплика не мешает запуску: её исключит проверка отставания
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricRegistry(Metrics.globalRegistry);
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLagMillis, checkIntervalMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,164 @@
+package com.viancis.common_point_user.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Маршрутизация соединений: транзакции readOnly уходят на реплики по кругу, остальное — на primary.
+ * Отставание реплик проверяется в фоне; реплика с отставанием больше maxLagMillis или недоступная
+ * исключается, пока не догонит. Если подходящих реплик нет, чтение идёт на primary.
+ * Признак readOnly выставляется после начала транзакции, поэтому источник нужно оборачивать
+ * в LazyConnectionDataSourceProxy — соединение берётся при первом запросе.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    // На primary и на догнавшей реплике отставание 0: время последней транзакции на простаивающей базе не растёт
+    private static final String LAG_SQL = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE((EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::bigint, 0) END";
+
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routedCounters = new HashMap<>();
+    private final Counter fallbackCounter;
+
+    private ScheduledExecutorService monitor;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, HikariDataSource> replicas,
+                                    long maxLagMillis, long checkIntervalMillis) {
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.replicas = new ArrayList<>();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        routedCounters.put(PRIMARY, routedCounter(PRIMARY));
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            targets.put(name, dataSource);
+            routedCounters.put(name, routedCounter(name));
+            Gauge.builder("datasource.replica.lag", replica.lagMillis, lag -> lag.get() / 1000.0)
+                    .tag("replica", name)
+                    .baseUnit("seconds")
+                    .description("Replication lag seen by the last check, -1 if the replica is unreachable")
+                    .register(Metrics.globalRegistry);
+        });
+        this.fallbackCounter = Counter.builder("datasource.routing.fallback")
+                .description("Read-only transactions sent to the primary because no replica was within the lag limit")
+                .register(Metrics.globalRegistry);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    private static Counter routedCounter(String target) {
+        return Counter.builder("datasource.routing")
+                .tag("target", target)
+                .description("Connections handed out per routing target")
+                .register(Metrics.globalRegistry);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (replicas.isEmpty()) {
+            return;
+        }
+        monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        monitor.scheduleWithFixedDelay(this::checkLag, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? pickReplica() : PRIMARY;
+        routedCounters.get(target).increment();
+        return target;
+    }
+
+    private String pickReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.available) {
+                return replica.name;
+            }
+        }
+        if (size > 0) {
+            fallbackCounter.increment();
+        }
+        return PRIMARY;
+    }
+
+    void checkLag() {
+        for (Replica replica : replicas) {
+            try {
+                Long lag = new JdbcTemplate(replica.dataSource).queryForObject(LAG_SQL, Long.class);
+                long lagMillis = lag != null ? lag : 0L;
+                replica.lagMillis.set(lagMillis);
+                boolean available = lagMillis <= maxLagMillis;
+                if (available != replica.available) {
+                    log.info("Replica {} {} (lag {} ms, limit {} ms)",
+                            replica.name, available ? "is back in rotation" : "is excluded", lagMillis, maxLagMillis);
+                }
+                replica.available = available;
+            } catch (Exception ex) {
+                if (replica.available) {
+                    log.warn("Replica {} is excluded, lag check failed: {}", replica.name, ex.getMessage());
+                }
+                replica.lagMillis.set(-1000L);
+                replica.available = false;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private static final class Replica {
+        final String name;
+        final HikariDataSource dataSource;
+        final AtomicLong lagMillis = new AtomicLong(-1000L);
+        // До первой проверки реплика не используется
+        volatile boolean available;
+
+        Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
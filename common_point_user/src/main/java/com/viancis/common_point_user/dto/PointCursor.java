@@ -0,0 +1,43 @@
+package com.viancis.common_point_user.dto;
+
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Курсор keyset-пагинации по (timestamp, id). Передаётся клиенту непрозрачной строкой.
+ */
+public record PointCursor(Instant timestamp, UUID id) {
+
+    public static PointCursor of(PointDTO point) {
+        Date timestamp = point.getTimestamp();
+        Instant instant = timestamp instanceof Timestamp
+                ? ((Timestamp) timestamp).toInstant()
+                : timestamp.toInstant();
+        return new PointCursor(instant, point.getId());
+    }
+
+    public static PointCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            Instant timestamp = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new PointCursor(timestamp, UUID.fromString(parts[2]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp.getEpochSecond() + ":" + timestamp.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Date timestampAsDate() {
+        return Timestamp.from(timestamp);
+    }
+}
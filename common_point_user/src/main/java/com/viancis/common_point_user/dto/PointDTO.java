@@ -1,5 +1,6 @@
 package com.viancis.common_point_user.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.viancis.common_point_user.model.Point;
@@ -9,6 +10,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.util.Date;
+import java.util.UUID;
 
 @Getter
 @Setter
@@ -17,6 +19,10 @@ import java.util.Date;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class PointDTO {
+    // Нужен для курсора пагинации и отбрасывания дубликатов, в ответ не выводится
+    @JsonIgnore
+    private UUID id;
+
     private double x;
     private double y;
     private double r;
@@ -29,6 +35,7 @@ public class PointDTO {
 
 
     public PointDTO(Point point) {
+        this.id = point.getId();
         this.x = point.getX();
         this.y = point.getY();
         this.r = point.getR();
@@ -0,0 +1,21 @@
+package com.viancis.common_point_user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PointPage {
+    private List<PointDTO> items;
+
+    // null, если страница последняя
+    private String nextCursor;
+}
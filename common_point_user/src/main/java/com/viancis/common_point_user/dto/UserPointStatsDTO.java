@@ -0,0 +1,43 @@
+package com.viancis.common_point_user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserPointStatsDTO {
+    private UUID userId;
+    private long total;
+    private long hits;
+
+    // Промахи подряд после последнего попадания
+    private int missStreak;
+
+    // null, если пользователь ещё не стрелял
+    private Date lastShotAt;
+
+    // Корзина k = 0..9 — выстрелы с r в [k, k + 1): здесь это rHistogram[k], в SQL — r_histogram[k + 1] (массивы с 1).
+    // r < 0 считаются в корзине 0, r >= 9 — в корзине 9
+    private long[] rHistogram;
+
+    public static UserPointStatsDTO empty(UUID userId, int buckets) {
+        return new UserPointStatsDTO(userId, 0, 0, 0, null, new long[buckets]);
+    }
+
+    public long getMisses() {
+        return total - hits;
+    }
+
+    public double getHitRatio() {
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -2,45 +2,60 @@ package com.viancis.common_point_user.metrics;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PreDestroy;
-import lombok.Getter;
-import org.springframework.aop.MethodBeforeAdvice;
-import org.springframework.beans.factory.config.BeanPostProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
 import org.springframework.aop.framework.ProxyFactory;
-import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-@Getter
-@Component
-public class CacheMetricsBeanPostProcessor implements BeanPostProcessor {
+/**
+ * Метрики кэша точек: статистика Caffeine через CaffeineCacheMetrics и гистограмма задержек
+ * по каждому методу кэша. На вызов приходится только запись в таймер;
+ * снимок статистики в файл (cache.metrics.snapshot.enabled) пишет отдельный фоновый поток.
+ * Бин объявлен в MetricsConfig.
+ */
+@Slf4j
+public class CacheMetricsBeanPostProcessor implements BeanPostProcessor, EnvironmentAware {
 
-    private static final String LOG_FILE_PATH = "cache_metrics.log";
-    private FileWriter writer;
+    private static final String CACHE_BEAN = "pointCache";
 
-    @Override
-    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+    private Environment environment;
 
-        if ("pointCache".equals(beanName) && bean instanceof Cache) {
-            try {
-                File logFile = new File(LOG_FILE_PATH);
-                if (!logFile.exists()) {
-                    logFile.createNewFile();
-                }
-                writer = new FileWriter(logFile, false);
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-        return bean;
+    // Таймеры по методам кэша создаются при первом вызове метода; методов у Cache конечное число
+    private final Map<Method, Timer> operationTimers = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService snapshotWriter;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
     }
 
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) {
-        if ("pointCache".equals(beanName) && bean instanceof Cache) {
-            return createProxy((Cache<?, ?>) bean);
+        if (CACHE_BEAN.equals(beanName) && bean instanceof Cache) {
+            Cache<?, ?> cache = (Cache<?, ?>) bean;
+            CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, CACHE_BEAN);
+            startSnapshotWriter(cache);
+            return createProxy(cache);
         }
         return bean;
     }
@@ -48,47 +63,66 @@ public class CacheMetricsBeanPostProcessor implements BeanPostProcessor {
     private Object createProxy(Cache<?, ?> cache) {
         ProxyFactory factory = new ProxyFactory();
         factory.setTarget(cache);
-        factory.addAdvice((MethodBeforeAdvice) (method, args, target) -> {
-            // Получаем статистику кеша
-            CacheStats stats = cache.stats();
-
-
-            logCacheMetricsToFile(stats);
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            Timer timer = operationTimers.get(invocation.getMethod());
+            if (timer == null) {
+                timer = operationTimers.computeIfAbsent(invocation.getMethod(), this::operationTimer);
+            }
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
         });
         return factory.getProxy();
     }
 
-    private void logCacheMetricsToFile(CacheStats stats) {
-        if (writer != null) {
-            try {
-                writer.write("----------------------------\n");
-                writer.write("Cache Metrics:\n");
-                writer.write("Hits: " + stats.hitCount() + "\n");
-                writer.write("Misses: " + stats.missCount() + "\n");
-                writer.write("Hit Rate: " + stats.hitRate() + "\n");
-                writer.write("Miss Rate: " + stats.missRate() + "\n");
-                writer.write("Load Success: " + stats.loadSuccessCount() + "\n");
-                writer.write("Load Failures: " + stats.loadFailureCount() + "\n");
-                writer.write("Evictions: " + stats.evictionCount() + "\n");
-                writer.write("----------------------------\n");
+    private Timer operationTimer(Method method) {
+        return Timer.builder("cache.operation")
+                .description("Point cache operation latency")
+                .tag("cache", CACHE_BEAN)
+                .tag("operation", method.getName())
+                .publishPercentileHistogram()
+                .register(Metrics.globalRegistry);
+    }
 
-                // Принудительно записываем данные в файл
-                writer.flush();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+    private void startSnapshotWriter(Cache<?, ?> cache) {
+        if (!environment.getProperty("cache.metrics.snapshot.enabled", Boolean.class, false)) {
+            return;
+        }
+        String path = environment.getProperty("cache.metrics.snapshot.file", "cache_metrics.log");
+        long interval = environment.getProperty("cache.metrics.snapshot.interval-seconds", Long.class, 60L);
+        snapshotWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-metrics-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotWriter.scheduleWithFixedDelay(() -> writeSnapshot(path, cache.stats()), interval, interval, TimeUnit.SECONDS);
+    }
+
+    private void writeSnapshot(String path, CacheStats stats) {
+        try (Writer writer = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write("----------------------------\n");
+            writer.write("Cache Metrics:\n");
+            writer.write("Hits: " + stats.hitCount() + "\n");
+            writer.write("Misses: " + stats.missCount() + "\n");
+            writer.write("Hit Rate: " + stats.hitRate() + "\n");
+            writer.write("Miss Rate: " + stats.missRate() + "\n");
+            writer.write("Load Success: " + stats.loadSuccessCount() + "\n");
+            writer.write("Load Failures: " + stats.loadFailureCount() + "\n");
+            writer.write("Evictions: " + stats.evictionCount() + "\n");
+            writer.write("----------------------------\n");
+        } catch (IOException e) {
+            log.warn("Failed to write cache metrics snapshot: {}", e.getMessage());
         }
     }
 
-    // Закрытие writer при завершении приложения (можно делать в контексте shutdown)
     @PreDestroy
-    public void closeWriter() {
-        try {
-            if (writer != null) {
-                writer.close();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    public void stopSnapshotWriter() {
+        if (snapshotWriter != null) {
+            snapshotWriter.shutdown();
         }
     }
-}
\ No newline at end of file
+}
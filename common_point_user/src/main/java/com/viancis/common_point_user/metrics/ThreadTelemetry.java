@@ -0,0 +1,243 @@
+package com.viancis.common_point_user.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Телеметрия потоков по пулам: потоки группируются по имени без номера (http-nio-8091-exec-3 -> http-nio-8091-exec),
+ * на каждый пул регистрируется фиксированный набор метрик. Число пулов ограничено, остальные попадают в "other",
+ * поэтому число метрик не растёт. Стеки не снимаются. Загрузку CPU по отдельным потокам можно снять по запросу через JMX.
+ * Бин объявлен в MetricsConfig: пакет metrics приложения не сканируют.
+ */
+@Slf4j
+@ManagedResource(objectName = "beans:name=ThreadTelemetry")
+public class ThreadTelemetry {
+
+    private static final String OTHER = "other";
+    private static final Pattern THREAD_NUMBER = Pattern.compile("[-_#. ]?\\d+$");
+    private static final long MAX_SAMPLE_MILLIS = 10_000;
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    @Value("${metrics.threads.enabled:true}")
+    private boolean enabled;
+
+    @Value("${metrics.threads.sample-interval-seconds:15}")
+    private long sampleIntervalSeconds;
+
+    @Value("${metrics.threads.max-pools:20}")
+    private int maxPools;
+
+    private final Map<String, PoolStats> pools = new ConcurrentHashMap<>();
+
+    // CPU потока на прошлом замере; потоки, которых больше нет, удаляются
+    private final Map<Long, Long> previousCpuTimes = new HashMap<>();
+
+    private long previousSampleTime;
+
+    private ScheduledExecutorService sampler;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        registerAsyncProfilerMetrics();
+        previousSampleTime = System.nanoTime();
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "thread-telemetry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(this::sample, 0, sampleIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    void sample() {
+        try {
+            long now = System.nanoTime();
+            long elapsed = now - previousSampleTime;
+            previousSampleTime = now;
+
+            boolean cpuSupported = threadBean.isThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+            Map<String, int[]> threadCounts = new HashMap<>();
+            Map<String, long[]> cpuDeltas = new HashMap<>();
+            Map<Long, Long> currentCpuTimes = new HashMap<>();
+
+            // maxDepth = 0: только имя и состояние, без стека
+            for (ThreadInfo info : threadBean.getThreadInfo(threadBean.getAllThreadIds(), 0)) {
+                if (info == null) {
+                    continue;
+                }
+                String pool = poolName(info.getThreadName());
+                threadCounts.computeIfAbsent(pool, p -> new int[1])[0]++;
+                if (cpuSupported) {
+                    long cpuTime = threadBean.getThreadCpuTime(info.getThreadId());
+                    if (cpuTime >= 0) {
+                        Long previous = previousCpuTimes.get(info.getThreadId());
+                        currentCpuTimes.put(info.getThreadId(), cpuTime);
+                        if (previous != null) {
+                            cpuDeltas.computeIfAbsent(pool, p -> new long[1])[0] += cpuTime - previous;
+                        }
+                    }
+                }
+            }
+            previousCpuTimes.clear();
+            previousCpuTimes.putAll(currentCpuTimes);
+
+            // Сначала собираем значения по пулам ("other" объединяет несколько имён), затем публикуем разом
+            Map<PoolStats, int[]> threads = new HashMap<>();
+            Map<PoolStats, long[]> cpu = new HashMap<>();
+            threadCounts.forEach((pool, count) -> threads.computeIfAbsent(stats(pool), p -> new int[1])[0] += count[0]);
+            cpuDeltas.forEach((pool, delta) -> cpu.computeIfAbsent(stats(pool), p -> new long[1])[0] += delta[0]);
+            for (PoolStats stats : pools.values()) {
+                int[] count = threads.get(stats);
+                long[] delta = cpu.get(stats);
+                stats.threads = count != null ? count[0] : 0;
+                stats.cpuUsage = delta != null && elapsed > 0 ? (double) delta[0] / elapsed : 0;
+                if (delta != null) {
+                    stats.cpuNanos.addAndGet(delta[0]);
+                }
+            }
+        } catch (Exception ex) {
+            log.warn("Thread telemetry sample failed: {}", ex.getMessage());
+        }
+    }
+
+    // Метрики пула регистрируются один раз при первом появлении; сверх лимита пулы складываются в "other"
+    private PoolStats stats(String pool) {
+        PoolStats stats = pools.get(pool);
+        if (stats != null) {
+            return stats;
+        }
+        String name = pools.size() < maxPools ? pool : OTHER;
+        return pools.computeIfAbsent(name, this::register);
+    }
+
+    private PoolStats register(String pool) {
+        PoolStats stats = new PoolStats();
+        Gauge.builder("jvm.threads.pool.count", stats, s -> s.threads)
+                .description("Live threads in the pool")
+                .tag("pool", pool)
+                .register(Metrics.globalRegistry);
+        FunctionCounter.builder("jvm.threads.pool.cpu", stats, s -> s.cpuNanos.get() / 1e9)
+                .description("CPU time consumed by the pool's threads")
+                .baseUnit("seconds")
+                .tag("pool", pool)
+                .register(Metrics.globalRegistry);
+        Gauge.builder("jvm.threads.pool.cpu.usage", stats, s -> s.cpuUsage)
+                .description("CPU cores used by the pool's threads over the last sample")
+                .tag("pool", pool)
+                .register(Metrics.globalRegistry);
+        return stats;
+    }
+
+    static String poolName(String threadName) {
+        String pool = THREAD_NUMBER.matcher(threadName).replaceFirst("");
+        return pool.isEmpty() ? threadName : pool;
+    }
+
+    @ManagedOperation(description = "Samples per-thread CPU for the given time and returns the busiest threads")
+    @ManagedOperationParameters({
+            @ManagedOperationParameter(name = "top", description = "Number of threads to return"),
+            @ManagedOperationParameter(name = "millis", description = "Sampling time, at most 10000 ms")
+    })
+    public String sampleThreadCpu(int top, long millis) throws InterruptedException {
+        if (!threadBean.isThreadCpuTimeSupported()) {
+            return "Thread CPU time is not supported by this JVM";
+        }
+        long[] ids = threadBean.getAllThreadIds();
+        long[] before = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            before[i] = threadBean.getThreadCpuTime(ids[i]);
+        }
+        Thread.sleep(Math.max(0, Math.min(millis, MAX_SAMPLE_MILLIS)));
+
+        List<long[]> deltas = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            long after = threadBean.getThreadCpuTime(ids[i]);
+            if (before[i] >= 0 && after >= 0) {
+                deltas.add(new long[]{ids[i], after - before[i]});
+            }
+        }
+        deltas.sort(Comparator.comparingLong((long[] delta) -> delta[1]).reversed());
+
+        StringBuilder result = new StringBuilder();
+        for (long[] delta : deltas.subList(0, Math.min(Math.max(top, 0), deltas.size()))) {
+            ThreadInfo info = threadBean.getThreadInfo(delta[0], 0);
+            if (info != null) {
+                result.append(info.getThreadName())
+                        .append(" [").append(info.getThreadState()).append("]: ")
+                        .append(TimeUnit.NANOSECONDS.toMillis(delta[1])).append(" ms\n");
+            }
+        }
+        return result.toString();
+    }
+
+    // Метрики Async Profiler регистрируются один раз, если профилировщик подключён к JVM
+    private void registerAsyncProfilerMetrics() {
+        try {
+            Class<?> profilerClass = Class.forName("one.profiler.AsyncProfiler");
+            Object profiler = profilerClass.getMethod("getInstance").invoke(null);
+
+            Gauge.builder("jvm.profiler.cpu.samples", () -> profilerSamples(profilerClass, profiler, "cpu="))
+                    .register(Metrics.globalRegistry);
+            Gauge.builder("jvm.profiler.alloc.samples", () -> profilerSamples(profilerClass, profiler, "alloc="))
+                    .register(Metrics.globalRegistry);
+        } catch (Exception e) {
+            // Async Profiler не доступен
+        }
+    }
+
+    private static double profilerSamples(Class<?> profilerClass, Object profiler, String prefix) {
+        try {
+            String status = (String) profilerClass.getMethod("execute", String.class).invoke(profiler, "status");
+            int start = status.indexOf(prefix);
+            if (start < 0) {
+                return 0;
+            }
+            start += prefix.length();
+            int end = status.indexOf(",", start);
+            if (end < 0) end = status.length();
+            return Long.parseLong(status.substring(start, end).trim());
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sampler != null) {
+            sampler.shutdown();
+        }
+    }
+
+    private static final class PoolStats {
+        volatile int threads;
+        volatile double cpuUsage;
+        final AtomicLong cpuNanos = new AtomicLong();
+    }
+}
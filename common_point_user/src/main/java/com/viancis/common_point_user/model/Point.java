@@ -2,29 +2,34 @@ package com.viancis.common_point_user.model;
 
 
 import com.viancis.auth.model.User;
+import com.viancis.common_point_user.area.AreaHitTester;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.GenericGenerator;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.UUID;
 
 @Entity
-@Table(name = "points")
+@Table(name = "points", indexes = {
+        @Index(name = "idx_points_timestamp_id", columnList = "timestamp, id"),
+        @Index(name = "idx_points_user_timestamp_id", columnList = "user_id, timestamp, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Point implements Serializable {
 
+    // UUIDv7 в нативной колонке uuid: ключи растут со временем и занимают 16 байт вместо строки
     @Id
-    @GeneratedValue(generator = "uuid")
-    @GenericGenerator(name = "uuid", strategy = "uuid2")
-    private String id;
+    @UuidV7
+    @Column(columnDefinition = "uuid")
+    private UUID id;
 
     @Column(nullable = false)
     private double x;
@@ -38,14 +43,15 @@ public class Point implements Serializable {
     @Column(nullable = false)
     private boolean insideArea;
 
+    // Ключ секционирования points (помесячные секции)
     @CreationTimestamp
-    @Column(updatable = false)
+    @Column(updatable = false, nullable = false)
     private Date timestamp;
 
     @Column(nullable = false)
     private long executionTime;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -64,19 +70,7 @@ public class Point implements Serializable {
 
 
     public Point checkInside() {
-        if (x >= 0 && y >= 0) {
-            // Треугольник: x + y <= r * 2
-            this.insideArea = (x + y <= r * 2);
-        } else if (x <= 0 && y >= 0) {
-            // Круг: x^2 + y^2 <= r^2
-            this.insideArea = (x * x + y * y <= r * r);
-        } else if (x >= 0 && y <= 0) {
-            // Квадрат: x и y в пределах от -r * 2 до r * 2
-            this.insideArea = (x >= -r * 2 && x <= r * 2 && y >= -r * 2 && y <= r * 2);
-        } else {
-            // Для всех остальных случаев
-            this.insideArea = false;
-        }
+        this.insideArea = AreaHitTester.isInside(x, y, r);
         return this;
     }
 
@@ -2,27 +2,24 @@ package com.viancis.common_point_user.notification;
 
 import com.viancis.common_point_user.model.Point;
 
-import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Gauge;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
-import org.springframework.context.annotation.Bean;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Component;
 
 
-import java.lang.management.*;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 @Slf4j
@@ -31,6 +28,12 @@ public class UserPointsStatistics implements UserPointsMBean, MissNotificationMB
     private static final int MISS_THRESHOLD = 3;
     private final Map<UUID, UserStats> userStatsMap = new ConcurrentHashMap<>();
 
+    // Общие агрегаты обновляются вместе со счётчиками пользователя, чтение не обходит карту
+    private final LongAdder totalPoints = new LongAdder();
+    private final LongAdder hitPoints = new LongAdder();
+    private final DoubleAdder missRatioSum = new DoubleAdder();
+    private final ConsecutiveMissHistogram consecutiveMissHistogram = new ConsecutiveMissHistogram();
+
 
     private final Counter totalPointsCounter = Counter.builder("user_points.total")
             .description("Total points")
@@ -48,156 +51,6 @@ public class UserPointsStatistics implements UserPointsMBean, MissNotificationMB
             .description("Maximum consecutive misses")
             .register(Metrics.globalRegistry);
 
-    @Bean
-    public MeterRegistryCustomizer<MeterRegistry> threadMetrics() {
-        return registry -> {
-            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
-            OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
-            MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
-            Map<Long, ThreadInfo> previousThreadInfos = new ConcurrentHashMap<>();
-            Map<Long, Long> previousCpuTimes = new ConcurrentHashMap<>();
-            AtomicLong lastUpdateTime = new AtomicLong(System.nanoTime());
-
-            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-
-            scheduler.scheduleAtFixedRate(() -> {
-                long currentTime = System.nanoTime();
-                long elapsedTime = currentTime - lastUpdateTime.get();
-                lastUpdateTime.set(currentTime);
-
-                long[] threadIds = threadBean.getAllThreadIds();
-
-                // Общие метрики JVM
-                Gauge.builder("jvm.thread.count", threadBean, ThreadMXBean::getThreadCount)
-                        .register(registry);
-
-                Gauge.builder("jvm.thread.daemon.count", threadBean, ThreadMXBean::getDaemonThreadCount)
-                        .register(registry);
-
-                // Метрики по каждому потоку
-                for (long id : threadIds) {
-                    ThreadInfo info = threadBean.getThreadInfo(id, Integer.MAX_VALUE);
-                    if (info != null) {
-                        String threadName = info.getThreadName();
-                        String threadState = info.getThreadState().toString();
-                        boolean isDaemon = info.isDaemon();
-
-                        // CPU метрики
-                        long cpuTime = threadBean.getThreadCpuTime(id);
-                        Long previousCpuTime = previousCpuTimes.put(id, cpuTime);
-
-                        // Время CPU в миллисекундах
-                        Gauge.builder("jvm.thread.cpu.time", () -> cpuTime / 1_000_000.0)
-                                .tag("thread.name", threadName)
-                                .tag("state", threadState)
-                                .tag("daemon", String.valueOf(isDaemon))
-                                .register(registry);
-
-                        // Загрузка CPU потоком (%)
-                        if (previousCpuTime != null && elapsedTime > 0) {
-                            double cpuUsage = Math.min(100.0,
-                                    (cpuTime - previousCpuTime) * 100.0 / elapsedTime);
-
-                            Gauge.builder("jvm.thread.cpu.usage", () -> cpuUsage)
-                                    .tag("thread.name", threadName)
-                                    .tag("state", threadState)
-                                    .tag("daemon", String.valueOf(isDaemon))
-                                    .register(registry);
-                        }
-
-                        // Метрики по аллокациям памяти
-
-
-                        // Блокировки и синхронизация
-                        Gauge.builder("jvm.thread.blocked.count", info::getBlockedCount)
-                                .tag("thread.name", threadName)
-                                .register(registry);
-
-                        Gauge.builder("jvm.thread.blocked.time", info::getBlockedTime)
-                                .tag("thread.name", threadName)
-                                .register(registry);
-
-                        Gauge.builder("jvm.thread.waited.count", info::getWaitedCount)
-                                .tag("thread.name", threadName)
-                                .register(registry);
-
-                        Gauge.builder("jvm.thread.waited.time", info::getWaitedTime)
-                                .tag("thread.name", threadName)
-                                .register(registry);
-
-                        // Состояние потока как числовое значение (для alert'ов)
-                        Gauge.builder("jvm.thread.state", () -> info.getThreadState().ordinal())
-                                .tag("thread.name", threadName)
-                                .tag("state", threadState)
-                                .register(registry);
-
-                        // Информация о стеке
-                        Gauge.builder("jvm.thread.stack.depth", () ->
-                                        info.getStackTrace().length)
-                                .tag("thread.name", threadName)
-                                .register(registry);
-
-                        // Сохраняем предыдущее состояние для вычисления дельт
-                        previousThreadInfos.put(id, info);
-                    }
-                }
-
-                // Очищаем данные по удаленным потокам
-                previousCpuTimes.keySet().retainAll(previousThreadInfos.keySet());
-
-                // Дополнительные метрики через Async Profiler (если доступен)
-                tryRegisterAsyncProfilerMetrics(registry);
-
-            }, 0, 15, TimeUnit.SECONDS);
-        };
-    }
-
-    private void tryRegisterAsyncProfilerMetrics(MeterRegistry registry) {
-        try {
-            Class<?> profilerClass = Class.forName("one.profiler.AsyncProfiler");
-            Object profiler = profilerClass.getMethod("getInstance").invoke(null);
-
-            // CPU профилирование
-            Gauge.builder("jvm.profiler.cpu.samples", () -> {
-                try {
-                    String output = (String) profilerClass.getMethod("execute", String.class)
-                            .invoke(profiler, "status");
-                    return parseSampleCount(output, "cpu=");
-                } catch (Exception e) {
-                    return Double.NaN;
-                }
-            }).register(registry);
-
-            // Аллокации памяти
-            Gauge.builder("jvm.profiler.alloc.samples", () -> {
-                try {
-                    String output = (String) profilerClass.getMethod("execute", String.class)
-                            .invoke(profiler, "status");
-                    return parseSampleCount(output, "alloc=");
-                } catch (Exception e) {
-                    return Double.NaN;
-                }
-            }).register(registry);
-
-        } catch (Exception e) {
-            // Async Profiler не доступен
-        }
-    }
-
-    private long parseSampleCount(String status, String prefix) {
-        int start = status.indexOf(prefix);
-        if (start >= 0) {
-            start += prefix.length();
-            int end = status.indexOf(",", start);
-            if (end < 0) end = status.length();
-            return Long.parseLong(status.substring(start, end).trim());
-        }
-        return 0;
-    }
-
-
-
-
     public UserPointsStatistics() {
     }
 
@@ -209,19 +62,23 @@ public class UserPointsStatistics implements UserPointsMBean, MissNotificationMB
                 id -> new UserStats()
         );
 
-        stats.totalPoints++;
+        boolean hit = point.isInside();
+        stats.record(hit);
+        totalPoints.increment();
         totalPointsCounter.increment();
-        if (point.isInside()) {
-            stats.hitPoints++;
+        if (hit) {
+            hitPoints.increment();
             hitPointsCounter.increment(); // Увеличиваем счетчик попаданий
-            stats.consecutiveMisses = 0;
-            log.info("User {}: Hit! Total hits: {}", user, stats.hitPoints);
+            int previousMisses = stats.consecutiveMisses.getAndSet(0);
+            consecutiveMissHistogram.move(previousMisses, 0);
+            log.debug("User {}: Hit!", user);
         } else {
-            stats.consecutiveMisses++;
+            int misses = stats.consecutiveMisses.incrementAndGet();
+            consecutiveMissHistogram.move(misses - 1, misses);
             missPointsCounter.increment(); // Увеличиваем счетчик промахов
-            log.info("User {}: Miss! Consecutive misses: {}", user, stats.consecutiveMisses);
-            if (stats.consecutiveMisses >= MISS_THRESHOLD) {
-                notifyMiss(user, stats.consecutiveMisses);
+            log.debug("User {}: Miss! Consecutive misses: {}", user, misses);
+            if (misses >= MISS_THRESHOLD) {
+                notifyMiss(user, misses);
             }
         }
     }
@@ -229,22 +86,19 @@ public class UserPointsStatistics implements UserPointsMBean, MissNotificationMB
     @ManagedAttribute
     @Override
     public int getConsecutiveMisses() {
-        return userStatsMap.values().stream()
-                .mapToInt(s -> s.consecutiveMisses)
-                .max()
-                .orElse(0);
+        return consecutiveMissHistogram.max();
     }
 
     @ManagedOperation
     @Override
     public void resetConsecutiveMisses() {
-        userStatsMap.values().forEach(s -> s.consecutiveMisses = 0);
+        userStatsMap.values().forEach(s -> consecutiveMissHistogram.move(s.consecutiveMisses.getAndSet(0), 0));
     }
 
     @ManagedAttribute
     @Override
     public int getTotalPoints() {
-        return userStatsMap.values().stream().mapToInt(s -> s.totalPoints).sum();
+        return (int) totalPoints.sum();
     }
 
     @Override
@@ -255,30 +109,71 @@ public class UserPointsStatistics implements UserPointsMBean, MissNotificationMB
     @ManagedAttribute
     @Override
     public int getHitPoints() {
-        return userStatsMap.values().stream().mapToInt(s -> s.hitPoints).sum();
+        return (int) hitPoints.sum();
     }
 
+    // Средний по пользователям процент промахов: сумма долей промахов поддерживается при каждом выстреле
     @ManagedAttribute
     @Override
     public double getMissPercentage() {
-        return userStatsMap.values().stream()
-                .mapToDouble(s -> s.totalPoints == 0 ? 0 :
-                        (s.totalPoints - s.hitPoints) * 100.0 / s.totalPoints)
-                .average()
-                .orElse(0);
+        int users = userStatsMap.size();
+        return users == 0 ? 0 : missRatioSum.sum() * 100.0 / users;
     }
 
     // Возвращаем максимальное количество подряд идущих промахов
     private int getMaxConsecutiveMisses() {
-        return userStatsMap.values().stream()
-                .mapToInt(s -> s.consecutiveMisses)
-                .max()
-                .orElse(0);
+        return consecutiveMissHistogram.max();
     }
 
-    private static class UserStats {
-        int totalPoints;
-        int hitPoints;
-        int consecutiveMisses;
+    /**
+     * Счётчики пользователя. Всего выстрелов и попаданий упакованы в один long (старшие и младшие 32 бита),
+     * поэтому каждое обновление — один CAS, и переход доли промахов old -> new известен точно.
+     */
+    private final class UserStats {
+        private final AtomicLong counts = new AtomicLong();
+        private final AtomicInteger consecutiveMisses = new AtomicInteger();
+
+        void record(boolean hit) {
+            long delta = hit ? (1L << 32) | 1L : 1L << 32;
+            long previous = counts.getAndAdd(delta);
+            missRatioSum.add(missRatio(previous + delta) - missRatio(previous));
+        }
+
+        private double missRatio(long packed) {
+            long total = packed >>> 32;
+            long hits = packed & 0xFFFFFFFFL;
+            return total == 0 ? 0 : (double) (total - hits) / total;
+        }
+    }
+
+    /**
+     * Число пользователей с данной серией промахов. Максимум ищется сверху по ячейкам, а не по всем пользователям;
+     * серии длиннее LIMIT - 1 учитываются в последней ячейке.
+     */
+    private static final class ConsecutiveMissHistogram {
+        private static final int LIMIT = 256;
+
+        private final AtomicIntegerArray users = new AtomicIntegerArray(LIMIT);
+
+        void move(int from, int to) {
+            if (from == to) {
+                return;
+            }
+            if (from > 0) {
+                users.decrementAndGet(Math.min(from, LIMIT - 1));
+            }
+            if (to > 0) {
+                users.incrementAndGet(Math.min(to, LIMIT - 1));
+            }
+        }
+
+        int max() {
+            for (int misses = LIMIT - 1; misses > 0; misses--) {
+                if (users.get(misses) > 0) {
+                    return misses;
+                }
+            }
+            return 0;
+        }
     }
-}
\ No newline at end of file
+}
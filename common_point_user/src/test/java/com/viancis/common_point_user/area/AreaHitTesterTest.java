@@ -0,0 +1,98 @@
+package com.viancis.common_point_user.area;
+
+import com.viancis.common_point_user.model.Point;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AreaHitTesterTest {
+
+    // Граничные значения: нули обоих знаков, NaN, бесконечности, r <= 0 и точки ровно на границах фигур
+    private static final double[] EDGE_VALUES = {
+            0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE,
+            0.5, -0.5, 1.0, -1.0, 1.5, -1.5, 2.0, -2.0, 3.0, -3.0, 4.0, -4.0,
+            Math.sqrt(0.5), -Math.sqrt(0.5), Math.nextUp(2.0), Math.nextDown(-2.0)
+    };
+
+    @Test
+    void edgeCasesMatchPoint() {
+        List<double[]> cases = new ArrayList<>();
+        for (double x : EDGE_VALUES) {
+            for (double y : EDGE_VALUES) {
+                for (double r : EDGE_VALUES) {
+                    cases.add(new double[]{x, y, r});
+                }
+            }
+        }
+        assertMatches(cases);
+    }
+
+    @Test
+    void randomInputsMatchPoint() {
+        Random random = new Random(42);
+        List<double[]> cases = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            cases.add(new double[]{
+                    random.nextDouble() * 12 - 6,
+                    random.nextDouble() * 12 - 6,
+                    random.nextDouble() * 8 - 2
+            });
+        }
+        // Точки на границах: x + y = 2r, x^2 + y^2 = r^2, |x| = |y| = 2r
+        for (int i = 0; i < 10_000; i++) {
+            double r = random.nextInt(9) * 0.5;
+            double x = random.nextInt(9) * 0.25;
+            cases.add(new double[]{x, r * 2 - x, r});
+            cases.add(new double[]{-r, 0.0, r});
+            cases.add(new double[]{0.0, r, r});
+            cases.add(new double[]{r * 2, -r * 2, r});
+            cases.add(new double[]{-0.0, -r * 2, r});
+        }
+        assertMatches(cases);
+    }
+
+    private static void assertMatches(List<double[]> cases) {
+        int size = cases.size();
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        double[] rs = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = cases.get(i)[0];
+            ys[i] = cases.get(i)[1];
+            rs[i] = cases.get(i)[2];
+        }
+        boolean[] batch = AreaHitTester.checkInside(xs, ys, rs);
+        PointBatch pointBatch = new PointBatch(size);
+        System.arraycopy(xs, 0, pointBatch.getX(), 0, size);
+        System.arraycopy(ys, 0, pointBatch.getY(), 0, size);
+        System.arraycopy(rs, 0, pointBatch.getR(), 0, size);
+        pointBatch.checkInside();
+
+        for (int i = 0; i < size; i++) {
+            boolean expected = reference(xs[i], ys[i], rs[i]);
+            String input = "x=" + xs[i] + ", y=" + ys[i] + ", r=" + rs[i];
+            Point point = new Point(xs[i], ys[i], rs[i], !expected, null, 0, null).checkInside();
+            assertEquals(expected, point.isInside(), "Point.isInside() " + input);
+            assertEquals(expected, AreaHitTester.isInside(xs[i], ys[i], rs[i]), "isInside " + input);
+            assertEquals(expected, batch[i], "checkInside " + input);
+            assertEquals(expected, pointBatch.getInside()[i], "PointBatch " + input);
+        }
+    }
+
+    // Исходная ветвящаяся проверка Point.checkInside(), с которой пакетный вариант должен совпадать
+    private static boolean reference(double x, double y, double r) {
+        if (x >= 0 && y >= 0) {
+            return x + y <= r * 2;
+        } else if (x <= 0 && y >= 0) {
+            return x * x + y * y <= r * r;
+        } else if (x >= 0 && y <= 0) {
+            return x >= -r * 2 && x <= r * 2 && y >= -r * 2 && y <= r * 2;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.viancis.oauth2.config;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограниченный пул для @Async-методов AuthService: проверка пароля, выпуск токенов и обращения к БД.
+ * При переполнении очереди задача выполняется вызывающим потоком.
+ * С executors.virtual-threads=true используются виртуальные потоки (нужна JDK 21+).
+ */
+@Configuration
+@EnableAsync(proxyTargetClass = true)
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer {
+
+    public static final String AUTH_EXECUTOR = "authExecutor";
+
+    @Value("${executors.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    @Value("${executors.auth.threads:0}")
+    private int threads;
+
+    @Value("${executors.auth.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Bean(name = AUTH_EXECUTOR)
+    public ExecutorService authExecutor() {
+        ExecutorService executor = virtualThreads ? virtualThreadExecutor() : null;
+        if (executor == null) {
+            int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    poolSize, poolSize, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "auth-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return ExecutorServiceMetrics.monitor(Metrics.globalRegistry, executor, "auth", Tags.of("workload", "auth"));
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return authExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) -> log.error("Async method {} failed: {}", method.getName(), ex.getMessage(), ex);
+    }
+
+    // Исходники собираются под 16, поэтому фабрика виртуальных потоков вызывается через reflection
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            log.warn("Virtual threads are not available in this JVM, auth executor falls back to a bounded pool");
+            return null;
+        }
+    }
+}
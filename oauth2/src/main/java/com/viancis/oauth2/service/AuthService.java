@@ -1,5 +1,6 @@
 package com.viancis.oauth2.service;
 
+import com.viancis.oauth2.config.AsyncConfig;
 import com.viancis.oauth2.exceptions.AuthException;
 import com.viancis.oauth2.model.User;
 import com.viancis.oauth2.repository.UserRepository;
@@ -15,7 +16,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 
 @Service
 @AllArgsConstructor
@@ -25,58 +25,53 @@ public class AuthService {
     private final JwtTokenService jwtTokenService;
     private final UserRepository userRepository;
 
-    @Async
+    @Async(AsyncConfig.AUTH_EXECUTOR)
     @Transactional
     public CompletableFuture<AuthResponse> authenticateAsync(String username, String password) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Authentication authentication = authenticationManager.authenticate(
-                        new UsernamePasswordAuthenticationToken(username, password)
-                );
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(username, password)
+            );
 
-                User user = (User) authentication.getPrincipal();
-                String accessToken = jwtTokenService.generateAccessToken(user);
-                String refreshToken = jwtTokenService.generateRefreshToken(user);
+            User user = (User) authentication.getPrincipal();
+            String accessToken = jwtTokenService.generateAccessToken(user);
+            String refreshToken = jwtTokenService.generateRefreshToken(user);
 
-                return new AuthResponse(accessToken, refreshToken);
-            } catch (AuthException e) {
-                throw new CompletionException(new AuthException("Authentication failed", e));
-            }
-        });
+            return CompletableFuture.completedFuture(new AuthResponse(accessToken, refreshToken));
+        } catch (AuthException e) {
+            throw new AuthException("Authentication failed", e);
+        }
     }
 
-    @Async
+    @Async(AsyncConfig.AUTH_EXECUTOR)
     @Transactional
     public CompletableFuture<AuthResponse> refreshTokenAsync(String refreshToken) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                String username = jwtTokenService.getUsernameFromToken(refreshToken);
-                User user = userRepository.findByUsername(username)
-                        .orElseThrow(() -> new AuthException("User not found"));
+        try {
+            String username = jwtTokenService.getUsernameFromToken(refreshToken);
+            User user = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new AuthException("User not found"));
 
-                if (!jwtTokenService.validateRefreshToken(refreshToken, user)) {
-                    throw new AuthException("Invalid refresh token");
-                }
+            if (!jwtTokenService.validateRefreshToken(refreshToken, user)) {
+                throw new AuthException("Invalid refresh token");
+            }
 
-                String newAccessToken = jwtTokenService.generateAccessToken(user);
-                String newRefreshToken = jwtTokenService.generateRefreshToken(user);
+            String newAccessToken = jwtTokenService.generateAccessToken(user);
+            String newRefreshToken = jwtTokenService.generateRefreshToken(user);
 
-                return new AuthResponse(newAccessToken, newRefreshToken);
-            } catch (Exception e) {
-                throw new CompletionException(new AuthException("Token refresh failed", e));
-            }
-        });
+            return CompletableFuture.completedFuture(new AuthResponse(newAccessToken, newRefreshToken));
+        } catch (Exception e) {
+            throw new AuthException("Token refresh failed", e);
+        }
     }
 
-    @Async
+    @Async(AsyncConfig.AUTH_EXECUTOR)
     @Transactional
     public CompletableFuture<Void> logoutAsync(UUID userId) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                jwtTokenService.invalidateRefreshToken(userId);
-            } catch (Exception e) {
-                throw new CompletionException(new AuthException("Logout failed", e));
-            }
-        });
+        try {
+            jwtTokenService.invalidateRefreshToken(userId);
+        } catch (Exception e) {
+            throw new AuthException("Logout failed", e);
+        }
+        return CompletableFuture.completedFuture(null);
     }
 }
\ No newline at end of file
@@ -2,21 +2,42 @@ package com.viancis.point.controller;
 
 import com.viancis.auth.service.CustomUserDetails;
 import com.viancis.common_point_user.model.Point;
+import com.viancis.common_point_user.dto.PointCursor;
 import com.viancis.common_point_user.dto.PointDTO;
+import com.viancis.common_point_user.dto.PointPage;
 import com.viancis.common_point_user.model.PointRequest;
 
 import com.viancis.point.service.PointService;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.viancis.point.service.PointServiceWithCacheFallback;
+import com.viancis.point.service.PointStreamService;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
@@ -28,10 +49,28 @@ public class PointController {
 
     private final PointService pointService;
 
+    private final PointStreamService pointStreamService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    @Value("${point.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    @Value("${point.page.max-limit:1000}")
+    private int maxPageLimit;
+
 
     @Autowired
-    public PointController(@Qualifier("pointServiceWithCacheFallback") PointService pointService) {
+    public PointController(@Qualifier("pointServiceWithCacheFallback") PointService pointService,
+                           PointStreamService pointStreamService,
+                           ObjectMapper objectMapper,
+                           Validator validator) {
         this.pointService = pointService;
+        this.pointStreamService = pointStreamService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
     @GetMapping
@@ -40,12 +79,29 @@ public class PointController {
                 .thenApply(points ->
                         points.isEmpty()
                                 ? ResponseEntity.noContent().build()
-                                : ResponseEntity.ok(points.stream()
-                                .map(PointDTO::new)
-                                .collect(Collectors.toList()))
+                                : ResponseEntity.ok(points)
                 );
     }
 
+    // GET /api/points?limit=&cursor=&from=&to= — окно по времени выстрела, from включительно, to исключительно
+    @GetMapping(params = "limit")
+    public CompletableFuture<ResponseEntity<PointPage>> getPointsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        int pageLimit = checkLimit(limit);
+        return pointService.getPointsPage(decodeCursor(cursor), from, to, pageLimit + 1)
+                .thenApply(points -> ResponseEntity.ok(toPage(points, pageLimit)));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPoints() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(pointStreamService::writeAll);
+    }
+
     @GetMapping("/my")
     @PreAuthorize("isAuthenticated()")
     public CompletableFuture<ResponseEntity<List<PointDTO>>> getMyPoints(
@@ -54,12 +110,24 @@ public class PointController {
                 .thenApply(points ->
                         points.isEmpty()
                                 ? ResponseEntity.noContent().build()
-                                : ResponseEntity.ok(points.stream()
-                                .map(PointDTO::new)
-                                .collect(Collectors.toList()))
+                                : ResponseEntity.ok(points)
                 );
     }
 
+    @GetMapping(value = "/my", params = "limit")
+    @PreAuthorize("isAuthenticated()")
+    public CompletableFuture<ResponseEntity<PointPage>> getMyPointsPage(
+            @AuthenticationPrincipal CustomUserDetails user,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        int pageLimit = checkLimit(limit);
+        UUID userId = user.getUser().getId();
+        return pointService.getMyPointsPage(userId, decodeCursor(cursor), from, to, pageLimit + 1)
+                .thenApply(points -> ResponseEntity.ok(toPage(points, pageLimit)));
+    }
+
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public CompletableFuture<ResponseEntity<PointDTO>> createPoint(
@@ -70,16 +138,110 @@ public class PointController {
                 .thenApply(createdPoint -> ResponseEntity.ok(new PointDTO(createdPoint)));
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public CompletableFuture<ResponseEntity<List<PointDTO>>> createPoints(
+            @AuthenticationPrincipal CustomUserDetails user,
+            InputStream body) throws IOException {
+        // Элементы массива читаются по одному и считаются по мере чтения, как строки NDJSON
+        List<PointRequest> points = new ArrayList<>();
+        ObjectReader reader = objectMapper.readerFor(PointRequest.class);
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Batch must be a JSON array of points");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Batch JSON array is not closed");
+                }
+                if (points.size() == maxBatchSize) {
+                    throw new IllegalArgumentException("Batch size exceeds limit of " + maxBatchSize);
+                }
+                points.add(reader.readValue(parser));
+            }
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed batch JSON: " + ex.getOriginalMessage());
+        }
+        return createBatch(user, points);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public CompletableFuture<ResponseEntity<List<PointDTO>>> createPointsFromStream(
+            @AuthenticationPrincipal CustomUserDetails user,
+            InputStream body) throws IOException {
+        // Строки считаются по мере чтения: тело больше maxBatchSize строк не буферизуется целиком
+        List<PointRequest> points = new ArrayList<>();
+        try (MappingIterator<PointRequest> lines = objectMapper.readerFor(PointRequest.class).readValues(body)) {
+            while (lines.hasNextValue()) {
+                if (points.size() == maxBatchSize) {
+                    throw new IllegalArgumentException("Batch size exceeds limit of " + maxBatchSize);
+                }
+                points.add(lines.nextValue());
+            }
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed batch JSON: " + ex.getOriginalMessage());
+        }
+        return createBatch(user, points);
+    }
+
+    private int checkLimit(int limit) {
+        if (limit < 1 || limit > maxPageLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageLimit);
+        }
+        return limit;
+    }
+
+    private PointCursor decodeCursor(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : PointCursor.decode(cursor);
+    }
+
+    // Запрашиваем limit + 1 строку: лишняя строка означает, что есть следующая страница
+    private PointPage toPage(List<PointDTO> points, int limit) {
+        boolean hasNext = points.size() > limit;
+        List<PointDTO> page = hasNext ? points.subList(0, limit) : points;
+        String nextCursor = hasNext ? PointCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new PointPage(page, nextCursor);
+    }
+
+    private CompletableFuture<ResponseEntity<List<PointDTO>>> createBatch(CustomUserDetails user, List<PointRequest> points) {
+        validateBatch(points);
+        return pointService.createPoints(user, points)
+                .thenApply(createdPoints -> ResponseEntity.ok(createdPoints.stream()
+                        .map(PointDTO::new)
+                        .collect(Collectors.toList())));
+    }
+
+    private void validateBatch(List<PointRequest> points) {
+        if (points == null || points.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one point");
+        }
+        if (points.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size exceeds limit of " + maxBatchSize);
+        }
+        for (int i = 0; i < points.size(); i++) {
+            Set<ConstraintViolation<PointRequest>> violations = validator.validate(points.get(i));
+            if (!violations.isEmpty()) {
+                int index = i;
+                String errorMessage = violations.stream()
+                        .map(violation -> "[" + index + "]." + violation.getPropertyPath() + ": " + violation.getMessage())
+                        .collect(Collectors.joining(", "));
+                throw new IllegalArgumentException("Validation failed: " + errorMessage);
+            }
+        }
+    }
+
     @PutMapping("/{id}")
     public CompletableFuture<ResponseEntity<PointDTO>> updatePoint(
-            @PathVariable String id,
+            @PathVariable UUID id,
             @RequestBody Point updatedPoint) {
         return pointService.updatePoint(id, updatedPoint)
                 .thenApply(updated -> ResponseEntity.ok(new PointDTO(updated)));
     }
 
     @DeleteMapping("/")
-    public CompletableFuture<ResponseEntity<Void>> deletePoint(@RequestParam String id) {
+    public CompletableFuture<ResponseEntity<Void>> deletePoint(@RequestParam UUID id) {
         return pointService.deletePoint(id)
                 .thenApply(v -> ResponseEntity.noContent().build());
     }
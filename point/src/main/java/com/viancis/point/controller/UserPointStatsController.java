@@ -0,0 +1,38 @@
+package com.viancis.point.controller;
+
+import com.viancis.auth.service.CustomUserDetails;
+import com.viancis.common_point_user.dto.UserPointStatsDTO;
+import com.viancis.point.service.UserPointStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.parameters.P;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+// Агрегат user_point_stats: одна строка по ключу, без сканирования points
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/points/stats")
+public class UserPointStatsController {
+
+    private final UserPointStatsService statsService;
+
+    @GetMapping("/my")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<UserPointStatsDTO> getMyStats(@AuthenticationPrincipal CustomUserDetails user) {
+        return ResponseEntity.ok(statsService.find(user.getUser().getId()));
+    }
+
+    // Чужую статистику читает только администратор
+    @GetMapping("/{userId}")
+    @PreAuthorize("hasAuthority('ADMIN') or #userId == principal.user.id")
+    public ResponseEntity<UserPointStatsDTO> getStats(@P("userId") @PathVariable UUID userId) {
+        return ResponseEntity.ok(statsService.find(userId));
+    }
+}
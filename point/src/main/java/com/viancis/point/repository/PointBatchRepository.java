@@ -0,0 +1,16 @@
+package com.viancis.point.repository;
+
+import com.viancis.common_point_user.dto.PointDTO;
+import com.viancis.common_point_user.model.Point;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public interface PointBatchRepository {
+
+    List<Point> insertAll(List<Point> points);
+
+    // Проекции точек всех пользователей, кроме указанных; id передаются одним параметром-массивом
+    List<PointDTO> findAllDTOExcludingUsers(Set<UUID> userIds);
+}
@@ -0,0 +1,74 @@
+package com.viancis.point.repository;
+
+import com.viancis.common_point_user.dto.PointDTO;
+import com.viancis.common_point_user.model.Point;
+import com.viancis.common_point_user.model.UuidV7Generator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Вставка пачки точек одним JDBC batch, минуя save() на каждую строку; id назначаются заранее (UUIDv7).
+ * Выборка без указанных пользователей передаёт их id одним массивом: NOT IN со списком
+ * давал по параметру на пользователя и упирался в предел 32767 параметров Postgres.
+ */
+@RequiredArgsConstructor
+public class PointBatchRepositoryImpl implements PointBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO points " +
+            "(id, x, y, r, inside_area, timestamp, execution_time, user_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_DTO_EXCLUDING_USERS_SQL = "SELECT p.id, p.x, p.y, p.r, p.inside_area, " +
+            "p.execution_time, p.timestamp, u.username " +
+            "FROM points p JOIN users u ON u.id = p.user_id " +
+            "WHERE p.user_id <> ALL (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${point.batch.insert-size:500}")
+    private int insertSize;
+
+    @Override
+    public List<Point> insertAll(List<Point> points) {
+        points.forEach(point -> {
+            if (point.getId() == null) {
+                point.setId(UuidV7Generator.next());
+            }
+        });
+        jdbcTemplate.batchUpdate(INSERT_SQL, points, insertSize, (ps, point) -> {
+            ps.setObject(1, point.getId());
+            ps.setDouble(2, point.getX());
+            ps.setDouble(3, point.getY());
+            ps.setDouble(4, point.getR());
+            ps.setBoolean(5, point.isInsideArea());
+            ps.setTimestamp(6, new Timestamp(point.getTimestamp().getTime()));
+            ps.setLong(7, point.getExecutionTime());
+            ps.setObject(8, point.getUser().getId());
+        });
+        return points;
+    }
+
+    @Override
+    public List<PointDTO> findAllDTOExcludingUsers(Set<UUID> userIds) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_DTO_EXCLUDING_USERS_SQL);
+            ps.setArray(1, connection.createArrayOf("uuid", userIds.toArray()));
+            return ps;
+        }, (rs, rowNum) -> new PointDTO(
+                rs.getObject(1, UUID.class),
+                rs.getDouble(2),
+                rs.getDouble(3),
+                rs.getDouble(4),
+                rs.getBoolean(5),
+                rs.getLong(6),
+                rs.getTimestamp(7),
+                rs.getString(8)));
+    }
+}
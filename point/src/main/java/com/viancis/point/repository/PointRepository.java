@@ -1,24 +1,92 @@
 package com.viancis.point.repository;
 
+import com.viancis.common_point_user.dto.PointDTO;
 import com.viancis.common_point_user.model.Point;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
 import java.util.List;
-import java.util.Set;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface PointRepository extends JpaRepository<Point, String> {
+// User у точки ленивый: запросы за сущностями для кэша подтягивают его тем же запросом
+public interface PointRepository extends JpaRepository<Point, UUID>, PointBatchRepository {
+
+    // Проекция для выдачи: только поля PointDTO и имя пользователя одним join, без сущностей User и их ролей
+    String DTO_SELECT = "SELECT new com.viancis.common_point_user.dto.PointDTO(" +
+            "p.id, p.x, p.y, p.r, p.insideArea, p.executionTime, p.timestamp, u.username) " +
+            "FROM Point p JOIN p.user u ";
+
+    // Ключ секционирования (timestamp) неизвестен, поэтому поиск проверяет индекс первичного ключа каждой секции
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Optional<Point> findById(UUID id);
+
+    @EntityGraph(attributePaths = "user")
     List<Point> findAllByUserId(UUID userId);
-    
+
+    @EntityGraph(attributePaths = "user")
     List<Point> findByUserId(UUID userId);
 
-    @Query("SELECT p FROM Point p WHERE p.user.id NOT IN :userIds")
-    List<Point> findPointsForUsers(@Param("userIds") Set<UUID> userIds);
+    @Query(DTO_SELECT)
+    List<PointDTO> findAllDTO();
+
+    @Query(DTO_SELECT + "WHERE u.id = :userId")
+    List<PointDTO> findAllDTOByUserId(@Param("userId") UUID userId);
+
+    // Keyset-пагинация по (timestamp, id) в окне [from, to), индексы idx_points_timestamp_id / idx_points_user_timestamp_id.
+    // Условие на timestamp отсекает месячные секции points вне окна
+    String WINDOW = "p.timestamp >= :from AND p.timestamp < :to ";
+
+    // Сравнение строк (timestamp, id) > (:timestamp, :id): PostgreSQL берёт его границей одного диапазона по индексу,
+    // а раскрытую форму с OR — не всегда
+    String AFTER = "(p.timestamp, p.id) > (:timestamp, :id) ";
+
+    @Query(DTO_SELECT + "WHERE " + WINDOW + "ORDER BY p.timestamp, p.id")
+    List<PointDTO> findFirstPageDTO(@Param("from") Date from, @Param("to") Date to, Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE " + WINDOW +
+            "AND " + AFTER +
+            "ORDER BY p.timestamp, p.id")
+    List<PointDTO> findPageAfterDTO(@Param("timestamp") Date timestamp,
+                                    @Param("id") UUID id,
+                                    @Param("from") Date from,
+                                    @Param("to") Date to,
+                                    Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE u.id = :userId AND " + WINDOW + "ORDER BY p.timestamp, p.id")
+    List<PointDTO> findFirstPageDTOByUserId(@Param("userId") UUID userId,
+                                            @Param("from") Date from,
+                                            @Param("to") Date to,
+                                            Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE u.id = :userId AND " + WINDOW +
+            "AND " + AFTER +
+            "ORDER BY p.timestamp, p.id")
+    List<PointDTO> findPageAfterDTOByUserId(@Param("userId") UUID userId,
+                                            @Param("timestamp") Date timestamp,
+                                            @Param("id") UUID id,
+                                            @Param("from") Date from,
+                                            @Param("to") Date to,
+                                            Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(DTO_SELECT)
+    Stream<PointDTO> streamAllDTO();
 
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package com.viancis.point.repository;
+
+import com.viancis.common_point_user.dto.UserPointStatsDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Таблица user_point_stats (миграция V3). Изменения прибавляются атомарным upsert, поэтому
+ * параллельные записи одного пользователя не теряют инкременты. JdbcTemplate работает в текущей
+ * транзакции JPA, агрегат фиксируется вместе с точками.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserPointStatsRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO user_point_stats AS s " +
+            "(user_id, total, hits, miss_streak, last_shot_at, r_histogram) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "total = s.total + EXCLUDED.total, " +
+            "hits = s.hits + EXCLUDED.hits, " +
+            "miss_streak = CASE WHEN ? THEN EXCLUDED.miss_streak ELSE s.miss_streak + EXCLUDED.miss_streak END, " +
+            "last_shot_at = GREATEST(s.last_shot_at, EXCLUDED.last_shot_at), " +
+            "r_histogram = ARRAY(SELECT COALESCE(o, 0) + COALESCE(d, 0) " +
+            "FROM unnest(s.r_histogram, EXCLUDED.r_histogram) WITH ORDINALITY AS h(o, d, i) ORDER BY i)";
+
+    private static final String SELECT_SQL = "SELECT total, hits, miss_streak, last_shot_at, r_histogram " +
+            "FROM user_point_stats WHERE user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Прибавляет приращения к агрегату пользователя. resetStreak — в приращении было попадание,
+     * тогда серия промахов заменяется на missStreak, иначе missStreak прибавляется к текущей.
+     */
+    public void add(UUID userId, long total, long hits, int missStreak, boolean resetStreak, Date lastShotAt, long[] rHistogram) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPSERT_SQL);
+            Long[] histogram = new Long[rHistogram.length];
+            for (int i = 0; i < rHistogram.length; i++) {
+                histogram[i] = rHistogram[i];
+            }
+            ps.setObject(1, userId);
+            ps.setLong(2, total);
+            ps.setLong(3, hits);
+            ps.setInt(4, missStreak);
+            ps.setTimestamp(5, lastShotAt != null ? new Timestamp(lastShotAt.getTime()) : null);
+            ps.setArray(6, connection.createArrayOf("bigint", histogram));
+            ps.setBoolean(7, resetStreak);
+            return ps;
+        });
+    }
+
+    public Optional<UserPointStatsDTO> find(UUID userId) {
+        List<UserPointStatsDTO> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> {
+            Array array = rs.getArray("r_histogram");
+            Object[] values = (Object[]) array.getArray();
+            long[] histogram = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                histogram[i] = values[i] != null ? ((Number) values[i]).longValue() : 0;
+            }
+            return new UserPointStatsDTO(
+                    userId,
+                    rs.getLong("total"),
+                    rs.getLong("hits"),
+                    rs.getInt("miss_streak"),
+                    rs.getTimestamp("last_shot_at"),
+                    histogram);
+        }, userId);
+        return rows.stream().findFirst();
+    }
+}
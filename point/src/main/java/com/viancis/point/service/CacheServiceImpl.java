@@ -1,14 +1,19 @@
 package com.viancis.point.service;
 
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.viancis.common_point_user.cache.PointCacheEvent;
+import com.viancis.common_point_user.cache.PointLog;
+import com.viancis.common_point_user.cache.PointLogFactory;
 import com.viancis.common_point_user.model.Point;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.viancis.common_point_user.dto.PointDTO;
-import com.viancis.point.repository.PointRepository;
 import lombok.AllArgsConstructor;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -17,9 +22,9 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 public class CacheServiceImpl {
 
-    private Cache<UUID, List<Point>> pointCache;
+    private Cache<UUID, PointLog> pointCache;
 
-    private final PointRepository pointRepository;
+    private final PointLogFactory pointLogFactory;
 
 
     public Set<UUID> getAllUserIds() {
@@ -27,32 +32,76 @@ public class CacheServiceImpl {
     }
 
 
+    // Снимок журнала без копирования; null, если пользователя нет в кэше
     public List<Point> getPoints(UUID userId) {
-        return pointCache.getIfPresent(userId);
+        PointLog log = pointCache.getIfPresent(userId);
+        return log != null ? log.snapshot() : null;
     }
 
 
-    public void putPoints(UUID userId, List<Point> points) {
-        pointCache.put(userId, points);
+    // Снимок журнала; при промахе журнал загружается через PointLogLoader
+    public List<Point> getOrLoadPoints(UUID userId) {
+        if (pointCache instanceof LoadingCache<UUID, PointLog> loadingCache) {
+            return loadingCache.get(userId).snapshot();
+        }
+        return getPoints(userId);
+    }
+
+
+    public List<Point> putPoints(UUID userId, List<Point> points) {
+        PointLog log = pointLogFactory.create(points);
+        pointCache.put(userId, log);
+        return log.snapshot();
     }
 
+    // Добавляем только в уже загруженный журнал: пустой журнал выдавал бы неполный список точек пользователя.
+    // Дописывание идёт через computeIfPresent: для Caffeine это запись, поэтому фоновое обновление,
+    // прочитавшее БД до появления точки, отбрасывается, а вес записи пересчитывается.
+    // Журнал, загруженный из БД уже после коммита точки, её содержит — повторно она не добавляется
     public void updateCache(UUID userId, Point newPoint) {
-        List<Point> cachedPoints = pointCache.getIfPresent(userId);
-        if (cachedPoints != null) {
-            cachedPoints.add(newPoint);
-        } else {
-            cachedPoints = new ArrayList<>();
-            cachedPoints.add(newPoint);
+        pointCache.asMap().computeIfPresent(userId, (id, log) -> {
+            if (!log.contains(newPoint.getId())) {
+                log.append(newPoint);
+            }
+            return log;
+        });
+    }
+
+    // Журнал только дописывается, поэтому изменение или удаление точки сбрасывает запись пользователя
+    public void evict(UUID userId) {
+        pointCache.invalidate(userId);
+    }
+
+    // Точка с другого узла приходит без пользователя: берём его из уже загруженного журнала.
+    // Узел мог загрузить журнал из БД после коммита точки и до прихода события — тогда точка уже в журнале
+    public void appendRemote(UUID userId, Point point) {
+        pointCache.asMap().computeIfPresent(userId, (id, log) -> {
+            if (log.user() == null) {
+                return null;
+            }
+            if (!log.contains(point.getId())) {
+                point.setUser(log.user());
+                log.append(point);
+            }
+            return log;
+        });
+    }
+
+    public void evictAll() {
+        pointCache.invalidateAll();
+    }
+
+    // Кэш согласуется с изменениями точек по событиям, а не по истечению TTL
+    @EventListener
+    public void onPointEvent(PointCacheEvent event) {
+        switch (event.type()) {
+            case CREATED -> updateCache(event.userId(), event.point());
+            case UPDATED, DELETED -> evict(event.userId());
         }
-        pointCache.put(userId, cachedPoints);
     }
 
     public void removeFromCache(UUID userId, Point pointToRemove) {
-        List<Point> cachedPoints = pointCache.getIfPresent(userId);
-        if (cachedPoints != null) {
-            cachedPoints.remove(pointToRemove);
-            pointCache.put(userId, cachedPoints);
-        }
+        evict(userId);
     }
 
     public boolean isUserInCache(UUID userId) {
@@ -65,12 +114,15 @@ public class CacheServiceImpl {
 
     public List<PointDTO> getAllPointsDTO() {
         return pointCache.asMap().values().stream()
-                .flatMap(List::stream)
+                .flatMap(log -> log.snapshot().stream())
                 .map(PointDTO::new)
                 .collect(Collectors.toList());
     }
 
-    public List<Point> getPointsForUsers(Set<UUID> cachedUserIds) {
-        return pointRepository.findPointsForUsers(cachedUserIds);
+    // Снимки журналов всех закэшированных пользователей на текущий момент
+    public Map<UUID, List<Point>> snapshotAll() {
+        Map<UUID, List<Point>> snapshots = new HashMap<>();
+        pointCache.asMap().forEach((userId, log) -> snapshots.put(userId, log.snapshot()));
+        return snapshots;
     }
-}
\ No newline at end of file
+}
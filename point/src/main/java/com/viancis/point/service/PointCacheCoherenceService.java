@@ -0,0 +1,95 @@
+package com.viancis.point.service;
+
+import com.viancis.common_point_user.cache.PointCacheEvent;
+import com.viancis.common_point_user.cache.PointCacheMessage;
+import com.viancis.common_point_user.config.RabbitConfig;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.ExchangeTypes;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Согласование кэшей точек между узлами: локальные изменения рассылаются через fanout-обменник,
+ * чужие применяются к своему кэшу. Пропуск номера от узла означает потерянное сообщение —
+ * тогда кэш сбрасывается целиком.
+ */
+@Service
+@Slf4j
+public class PointCacheCoherenceService {
+
+    private final CacheServiceImpl cacheService;
+    private final RabbitTemplate rabbitTemplate;
+
+    private final String origin = UUID.randomUUID().toString();
+    private final AtomicLong version = new AtomicLong();
+
+    // Последний применённый номер от каждого узла
+    private final Map<String, Long> lastVersions = new ConcurrentHashMap<>();
+
+    // Один поток сохраняет порядок номеров в обменнике
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "point-cache-coherence");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PointCacheCoherenceService(CacheServiceImpl cacheService, RabbitTemplate rabbitTemplate) {
+        this.cacheService = cacheService;
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @EventListener
+    public void onPointEvent(PointCacheEvent event) {
+        publisher.execute(() -> {
+            PointCacheMessage message = PointCacheMessage.of(origin, version.incrementAndGet(), event);
+            try {
+                rabbitTemplate.convertAndSend(RabbitConfig.POINT_CACHE_EXCHANGE, "", message);
+            } catch (Exception ex) {
+                // Номер уже израсходован: остальные узлы увидят пропуск и сбросят кэш
+                log.error("Failed to publish cache message {}: {}", message.version(), ex.getMessage());
+            }
+        });
+    }
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(exclusive = "true", autoDelete = "true"),
+            exchange = @Exchange(value = RabbitConfig.POINT_CACHE_EXCHANGE, type = ExchangeTypes.FANOUT)))
+    public void onMessage(PointCacheMessage message) {
+        if (origin.equals(message.origin())) {
+            return;
+        }
+        Long last = lastVersions.get(message.origin());
+        if (last != null && message.version() <= last) {
+            return;
+        }
+        lastVersions.put(message.origin(), message.version());
+        if (last != null && message.version() > last + 1) {
+            log.warn("Lost {} cache messages from {}, invalidating point cache",
+                    message.version() - last - 1, message.origin());
+            cacheService.evictAll();
+            return;
+        }
+        switch (message.type()) {
+            case CREATED -> cacheService.appendRemote(message.userId(), message.toPoint());
+            case UPDATED, DELETED -> cacheService.evict(message.userId());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.shutdown();
+    }
+}
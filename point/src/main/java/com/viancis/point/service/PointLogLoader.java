@@ -0,0 +1,49 @@
+package com.viancis.point.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.viancis.common_point_user.cache.PointLog;
+import com.viancis.common_point_user.cache.PointLogFactory;
+import com.viancis.common_point_user.model.Point;
+import com.viancis.point.repository.PointRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Загрузка журнала пользователя в кэш: точки из БД плюс ещё не записанные точки write-behind.
+ * Используется и при промахе, и при фоновом обновлении горячих записей.
+ */
+@Component
+@RequiredArgsConstructor
+public class PointLogLoader implements CacheLoader<UUID, PointLog> {
+
+    private final PointRepository pointRepository;
+    private final PointWriteBehindService writeBehindService;
+    private final PointLogFactory pointLogFactory;
+
+    // Ожидающие записи точки читаются до БД: точка, успевшая записаться между чтениями, попадёт в оба списка и уйдёт при слиянии.
+    // Загрузка идёт вне readOnly-транзакции, то есть с primary: только что записанных точек на реплике может ещё не быть
+    @Override
+    public PointLog load(UUID userId) {
+        List<Point> pending = writeBehindService.pendingFor(userId);
+        List<Point> dbPoints = pointRepository.findAllByUserId(userId);
+        return pointLogFactory.create(mergePending(dbPoints, pending));
+    }
+
+    private List<Point> mergePending(List<Point> dbPoints, List<Point> pending) {
+        if (pending.isEmpty()) {
+            return dbPoints;
+        }
+        Set<UUID> ids = dbPoints.stream().map(Point::getId).collect(Collectors.toSet());
+        List<Point> merged = new ArrayList<>(dbPoints);
+        pending.stream()
+                .filter(point -> ids.add(point.getId()))
+                .forEach(merged::add);
+        return merged;
+    }
+}
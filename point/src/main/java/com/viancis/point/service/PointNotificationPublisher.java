@@ -0,0 +1,268 @@
+package com.viancis.point.service;
+
+import com.viancis.common_point_user.config.PointNotificationMessageConverter;
+import com.viancis.common_point_user.config.RabbitConfig;
+import com.viancis.common_point_user.dto.PointNotification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Отправка уведомлений о точках в очереди-партиции user.notifications.point.p* одним фоновым потоком:
+ * уведомления копятся в ограниченном кольцевом буфере и уходят пачками с ожиданием publisher confirms.
+ * Если брокер недоступен или буфер переполнен, уведомления дописываются в файл на диске
+ * и отдельный поток по расписанию переотправляет их, когда брокер снова принимает сообщения. На диск пишутся плоские записи
+ * двоичного формата PointNotificationMessageConverter, без сущностей Point и User.
+ */
+@Service
+@Slf4j
+public class PointNotificationPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${point.notifications.buffer-capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${point.notifications.batch-size:100}")
+    private int batchSize;
+
+    @Value("${point.notifications.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${point.notifications.spool-dir:spool}")
+    private String spoolDir;
+
+    @Value("${point.notifications.partitions:4}")
+    private int partitions;
+
+    @Value("${point.notifications.replay-interval-ms:1000}")
+    private long replayIntervalMs;
+
+    private BlockingQueue<PointNotification> buffer;
+
+    private Path spoolFile;
+    private Path replayFile;
+    private final Object spoolLock = new Object();
+
+    private Thread worker;
+    // Переотправка с диска идёт по своему расписанию: под постоянной нагрузкой буфер не пустеет
+    private ScheduledExecutorService replayer;
+    private volatile boolean running;
+
+    private final Counter publishedCounter = Counter.builder("points.notifications.published")
+            .description("Notifications confirmed by the broker")
+            .register(Metrics.globalRegistry);
+
+    private final Counter bufferFullCounter = Counter.builder("points.notifications.buffer_full")
+            .description("Notifications that did not fit into the buffer and went to the spool")
+            .register(Metrics.globalRegistry);
+
+    private final Counter spooledCounter = Counter.builder("points.notifications.spooled")
+            .description("Notifications written to the disk spool")
+            .register(Metrics.globalRegistry);
+
+    private final Timer batchTimer = Timer.builder("points.notifications.batch")
+            .description("Time to publish a batch and receive confirms")
+            .register(Metrics.globalRegistry);
+
+    public PointNotificationPublisher(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        Gauge.builder("points.notifications.buffer.size", buffer, BlockingQueue::size)
+                .description("Notifications waiting to be published")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("points.notifications.buffer.remaining", buffer, BlockingQueue::remainingCapacity)
+                .description("Free slots in the notification buffer")
+                .register(Metrics.globalRegistry);
+
+        Path dir = Paths.get(spoolDir);
+        Files.createDirectories(dir);
+        spoolFile = dir.resolve("notifications.bin");
+        replayFile = dir.resolve("notifications.replay.bin");
+
+        running = true;
+        worker = new Thread(this::run, "point-notification-publisher");
+        worker.setDaemon(true);
+        worker.start();
+
+        replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "point-notification-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        replayer.scheduleWithFixedDelay(this::replaySpool, replayIntervalMs, replayIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Не блокирует вызывающего: при переполненном буфере уведомление сразу уходит на диск
+    public void publish(PointNotification notification) {
+        if (!buffer.offer(notification)) {
+            bufferFullCounter.increment();
+            spool(List.of(notification));
+        }
+    }
+
+    private void run() {
+        List<PointNotification> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                PointNotification first = buffer.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                if (!send(batch)) {
+                    spool(batch);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception ex) {
+                log.error("Notification publisher failed: {}", ex.getMessage(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private boolean send(List<PointNotification> batch) {
+        try {
+            batchTimer.record(() -> rabbitTemplate.invoke(operations -> {
+                for (PointNotification notification : batch) {
+                    int partition = RabbitConfig.notificationPartition(notification.user(), partitions);
+                    operations.convertAndSend(RabbitConfig.POINT_NOTIFICATIONS_EXCHANGE, String.valueOf(partition), notification);
+                }
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                return null;
+            }));
+            publishedCounter.increment(batch.size());
+            return true;
+        } catch (Exception ex) {
+            log.warn("Failed to publish {} notifications, spooling to disk: {}", batch.size(), ex.getMessage());
+            return false;
+        }
+    }
+
+    private void spool(List<PointNotification> notifications) {
+        synchronized (spoolLock) {
+            try {
+                ByteArrayOutputStream records = new ByteArrayOutputStream(notifications.size() * PointNotificationMessageConverter.SIZE);
+                for (PointNotification notification : notifications) {
+                    records.write(PointNotificationMessageConverter.encode(notification));
+                }
+                Files.write(spoolFile, records.toByteArray(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                spooledCounter.increment(notifications.size());
+            } catch (IOException ex) {
+                log.error("Failed to spool {} notifications, they are lost: {}", notifications.size(), ex.getMessage(), ex);
+            }
+        }
+    }
+
+    // Переотправка с диска. Прерванная переотправка начнётся заново:
+    // часть уведомлений может прийти дважды, но не потеряется
+    private void replaySpool() {
+        synchronized (spoolLock) {
+            if (!Files.exists(replayFile)) {
+                if (!Files.exists(spoolFile)) {
+                    return;
+                }
+                try {
+                    Files.move(spoolFile, replayFile, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException ex) {
+                    log.error("Failed to rotate notification spool: {}", ex.getMessage(), ex);
+                    return;
+                }
+            }
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(replayFile)))) {
+            List<PointNotification> batch = new ArrayList<>(batchSize);
+            byte[] record = new byte[PointNotificationMessageConverter.SIZE];
+            while (readRecord(input, record)) {
+                try {
+                    batch.add(PointNotificationMessageConverter.decode(record));
+                } catch (RuntimeException ex) {
+                    log.error("Skipping unreadable spooled notification: {}", ex.getMessage());
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    if (!send(batch)) {
+                        return;
+                    }
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty() && !send(batch)) {
+                return;
+            }
+        } catch (IOException ex) {
+            log.error("Failed to read notification spool: {}", ex.getMessage(), ex);
+            return;
+        }
+        try {
+            Files.delete(replayFile);
+        } catch (IOException ex) {
+            log.error("Failed to delete replayed notification spool: {}", ex.getMessage(), ex);
+        }
+    }
+
+    // Недописанная при падении последняя запись отбрасывается
+    private static boolean readRecord(DataInputStream input, byte[] record) throws IOException {
+        try {
+            input.readFully(record);
+            return true;
+        } catch (EOFException ex) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (replayer != null) {
+            replayer.shutdown();
+        }
+        if (worker == null) {
+            return;
+        }
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // Всё, что не успели отправить, остаётся на диске до следующего запуска
+        List<PointNotification> rest = new ArrayList<>();
+        buffer.drainTo(rest);
+        if (!rest.isEmpty()) {
+            spool(rest);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.viancis.point.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживание помесячных секций points (миграция V2): заранее создаёт секции на months-ahead месяцев вперёд,
+ * секции старше retention-months отключает от points и переносит в схему архива. Архивные секции
+ * не участвуют в запросах и не обслуживаются vacuum основной таблицы; удалять или выгружать их — вручную.
+ * Отключение идёт DETACH PARTITION ... CONCURRENTLY (PostgreSQL 14+) вне транзакции и не блокирует
+ * запросы к points; прерванное отключение завершается FINALIZE при следующей проверке.
+ * Строки, попавшие в секцию по умолчанию points_default, видны метрикой points.partitions.default.rows:
+ * строки предстоящих месяцев переносятся при создании их секций, строки прошлых месяцев — только вручную.
+ */
+@Service
+@Slf4j
+public class PointPartitionService {
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("points_p(\\d{4})_(\\d{2})");
+
+    private static final String LIST_PARTITIONS_SQL = "SELECT c.relname FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = to_regclass('points')";
+
+    private static final String DETACH_PENDING_SQL = "SELECT i.inhdetachpending FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = to_regclass('points') AND c.relname = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${point.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${point.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 — секции не архивируются
+    @Value("${point.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${point.partitions.archive-schema:points_archive}")
+    private String archiveSchema;
+
+    @Value("${point.partitions.check-interval-hours:6}")
+    private long checkIntervalHours;
+
+    private final AtomicInteger partitionCount = new AtomicInteger();
+
+    private final AtomicLong defaultPartitionRows = new AtomicLong();
+
+    private final Counter archivedCounter = Counter.builder("points.partitions.archived")
+            .description("Monthly points partitions detached into the archive schema")
+            .register(Metrics.globalRegistry);
+
+    private ScheduledExecutorService maintainer;
+
+    public PointPartitionService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("points.partitions", partitionCount, AtomicInteger::get)
+                .description("Partitions currently attached to the points table")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("points.partitions.default.rows", defaultPartitionRows, AtomicLong::get)
+                .description("Rows in the points_default partition, outside any monthly partition")
+                .register(Metrics.globalRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        maintainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "point-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintainer.scheduleWithFixedDelay(this::maintain, 0, checkIntervalHours, TimeUnit.HOURS);
+    }
+
+    void maintain() {
+        try {
+            if (!isPartitioned()) {
+                log.warn("Table points is not partitioned, partition maintenance skipped");
+                return;
+            }
+            createUpcoming();
+            if (retentionMonths > 0) {
+                archiveExpired();
+            }
+            partitionCount.set(listPartitions().size());
+            checkDefaultPartition();
+        } catch (Exception ex) {
+            log.error("Points partition maintenance failed: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private boolean isPartitioned() {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('points')", String.class);
+        return kinds.size() == 1 && "p".equals(kinds.get(0));
+    }
+
+    private void createUpcoming() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            LocalDate month = current.plusMonths(i).atDay(1);
+            jdbcTemplate.queryForList("SELECT create_points_partition(?)", Object.class, Date.valueOf(month));
+        }
+    }
+
+    // Секция архивируется, когда весь её месяц старше границы хранения
+    private void archiveExpired() {
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        for (String partition : listPartitions()) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            // Имя проверено шаблоном, поэтому его можно подставить в DDL
+            if (!detach(partition)) {
+                continue;
+            }
+            jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA \"" + archiveSchema.replace("\"", "") + "\"");
+            archivedCounter.increment();
+            log.info("Points partition {} detached into schema {}", partition, archiveSchema);
+        }
+    }
+
+    // JdbcTemplate вне транзакции работает в autocommit, как требует CONCURRENTLY
+    private boolean detach(String partition) {
+        if (isDetachPending(partition)) {
+            log.info("Finalizing interrupted detach of points partition {}", partition);
+            jdbcTemplate.execute("ALTER TABLE points DETACH PARTITION " + partition + " FINALIZE");
+            return true;
+        }
+        try {
+            jdbcTemplate.execute("ALTER TABLE points DETACH PARTITION " + partition + " CONCURRENTLY");
+            return true;
+        } catch (DataAccessException ex) {
+            if (!isDetachPending(partition)) {
+                throw ex;
+            }
+            log.warn("Concurrent detach of points partition {} was interrupted, finalizing: {}", partition, ex.getMessage());
+            try {
+                jdbcTemplate.execute("ALTER TABLE points DETACH PARTITION " + partition + " FINALIZE");
+                return true;
+            } catch (DataAccessException finalizeEx) {
+                log.warn("Finalizing detach of points partition {} failed, will retry: {}", partition, finalizeEx.getMessage());
+                return false;
+            }
+        }
+    }
+
+    private boolean isDetachPending(String partition) {
+        List<Boolean> pending = jdbcTemplate.queryForList(DETACH_PENDING_SQL, Boolean.class, partition);
+        return !pending.isEmpty() && Boolean.TRUE.equals(pending.get(0));
+    }
+
+    // Секция по умолчанию обычно пуста, поэтому count(*) дёшев
+    private void checkDefaultPartition() {
+        Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM points_default", Long.class);
+        defaultPartitionRows.set(rows != null ? rows : 0L);
+        if (rows != null && rows > 0) {
+            log.warn("{} points are in the default partition points_default, outside the monthly partitions", rows);
+        }
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (maintainer != null) {
+            maintainer.shutdownNow();
+        }
+    }
+}
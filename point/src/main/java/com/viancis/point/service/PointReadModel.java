@@ -0,0 +1,110 @@
+package com.viancis.point.service;
+
+import com.viancis.common_point_user.dto.PointDTO;
+import com.viancis.common_point_user.model.Point;
+import com.viancis.point.repository.PointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Сводное чтение всех точек: закэшированные журналы пользователей плюс один запрос-проекция в БД
+ * за точками остальных пользователей. Дубликаты по id отбрасываются.
+ */
+@Component
+@Slf4j
+public class PointReadModel {
+
+    private final CacheServiceImpl cacheService;
+    private final PointRepository pointRepository;
+    private final PointWriteBehindService writeBehindService;
+
+    @Value("${point.read-model.max-excluded-users:10000}")
+    private int maxExcludedUsers;
+
+    private final Counter cachedPointsCounter = Counter.builder("points.read_model.points")
+            .tag("source", "cache")
+            .description("Points served from the per-user cache by getAllPoints")
+            .register(Metrics.globalRegistry);
+
+    private final Counter databasePointsCounter = Counter.builder("points.read_model.points")
+            .tag("source", "database")
+            .description("Points loaded from the database by getAllPoints")
+            .register(Metrics.globalRegistry);
+
+    private final DistributionSummary cacheRatio = DistributionSummary.builder("points.read_model.cache_ratio")
+            .description("Share of getAllPoints result served from cache")
+            .register(Metrics.globalRegistry);
+
+    public PointReadModel(CacheServiceImpl cacheService,
+                          PointRepository pointRepository,
+                          PointWriteBehindService writeBehindService) {
+        this.cacheService = cacheService;
+        this.pointRepository = pointRepository;
+        this.writeBehindService = writeBehindService;
+    }
+
+    // Запрос в БД уходит на реплику: точки, ещё не дошедшие до неё, отстают не больше допустимого лага
+    @Transactional(readOnly = true)
+    public Result readAll() {
+        Map<UUID, List<Point>> cached = cacheService.snapshotAll();
+        List<Point> pending = writeBehindService.pending();
+        // При очень большом кэше исключать пользователей в запросе дороже, чем отбросить дубликаты по id ниже
+        List<PointDTO> database = cached.isEmpty() || cached.size() > maxExcludedUsers
+                ? pointRepository.findAllDTO()
+                : pointRepository.findAllDTOExcludingUsers(cached.keySet());
+
+        List<PointDTO> points = new ArrayList<>(database.size() + cached.values().stream().mapToInt(List::size).sum());
+        Set<UUID> ids = new HashSet<>();
+        int fromCache = 0;
+        for (List<Point> userPoints : cached.values()) {
+            for (Point point : userPoints) {
+                if (ids.add(point.getId())) {
+                    points.add(new PointDTO(point));
+                    fromCache++;
+                }
+            }
+        }
+        int fromDatabase = 0;
+        for (PointDTO point : database) {
+            if (ids.add(point.getId())) {
+                points.add(point);
+                fromDatabase++;
+            }
+        }
+        // Ещё не записанные в БД точки пользователей, которых нет в кэше
+        for (Point point : pending) {
+            if (!cached.containsKey(point.getUser().getId()) && ids.add(point.getId())) {
+                points.add(new PointDTO(point));
+                fromCache++;
+            }
+        }
+
+        Result result = new Result(points, fromCache, fromDatabase);
+        cachedPointsCounter.increment(fromCache);
+        databasePointsCounter.increment(fromDatabase);
+        cacheRatio.record(result.cacheRatio());
+        log.debug("getAllPoints: {} points, {} from cache ({} users), {} from database",
+                points.size(), fromCache, cached.size(), fromDatabase);
+        return result;
+    }
+
+    public record Result(List<PointDTO> points, int fromCache, int fromDatabase) {
+
+        public double cacheRatio() {
+            int total = fromCache + fromDatabase;
+            return total == 0 ? 0 : (double) fromCache / total;
+        }
+    }
+}
@@ -1,22 +1,32 @@
 package com.viancis.point.service;
 
 import com.viancis.auth.service.CustomUserDetails;
+import com.viancis.common_point_user.dto.PointCursor;
+import com.viancis.common_point_user.dto.PointDTO;
 import com.viancis.common_point_user.model.Point;
 import com.viancis.common_point_user.model.PointRequest;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 public interface PointService {
 
-    CompletableFuture<List<Point>> getAllPoints();
+    CompletableFuture<List<PointDTO>> getAllPoints();
 
-    CompletableFuture<List<Point>> getMyPoints(UUID userId);
+    CompletableFuture<List<PointDTO>> getMyPoints(UUID userId);
+
+    // Окно [from, to) по времени выстрела; null — без ограничения с этой стороны
+    CompletableFuture<List<PointDTO>> getPointsPage(PointCursor cursor, Instant from, Instant to, int limit);
+
+    CompletableFuture<List<PointDTO>> getMyPointsPage(UUID userId, PointCursor cursor, Instant from, Instant to, int limit);
 
     CompletableFuture<Point> createPoint(CustomUserDetails user, PointRequest pointRequest);
 
-    CompletableFuture<Point> updatePoint(String id, Point updatedPoint);
+    CompletableFuture<List<Point>> createPoints(CustomUserDetails user, List<PointRequest> pointRequests);
+
+    CompletableFuture<Point> updatePoint(UUID id, Point updatedPoint);
 
-    CompletableFuture<Point> deletePoint(String id);
+    CompletableFuture<Point> deletePoint(UUID id);
 }
\ No newline at end of file
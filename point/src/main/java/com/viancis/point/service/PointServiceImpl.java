@@ -2,81 +2,149 @@ package com.viancis.point.service;
 
 
 import com.viancis.auth.service.CustomUserDetails;
+import com.viancis.common_point_user.area.PointBatch;
+import com.viancis.common_point_user.config.AsyncExecutorsConfig;
+import com.viancis.common_point_user.dto.PointCursor;
+import com.viancis.common_point_user.dto.PointDTO;
 import com.viancis.common_point_user.model.Point;
 import com.viancis.common_point_user.model.PointRequest;
 import com.viancis.point.repository.PointRepository;
 
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
+// Тела методов выполняются синхронно на потоке пула db, там же открывается транзакция; чтения readOnly идут на реплики
 @Service
 @AllArgsConstructor
 public class PointServiceImpl implements PointService {
 
+    private static final Instant MIN_TIME = Instant.EPOCH;
+    private static final Instant MAX_TIME = Instant.parse("9999-12-31T00:00:00Z");
+
     private final PointRepository pointRepository;
 
+    private final UserPointStatsService statsService;
 
-    @Async
-    @Transactional
-    public CompletableFuture<List<Point>> getAllPoints() {
-        return CompletableFuture.supplyAsync(pointRepository::findAll);
+    private final PointWriteBehindService writeBehindService;
+
+
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
+    @Transactional(readOnly = true)
+    public CompletableFuture<List<PointDTO>> getAllPoints() {
+        return CompletableFuture.completedFuture(pointRepository.findAllDTO());
     }
 
-    @Async
-    @Transactional
-    public CompletableFuture<List<Point>> getMyPoints(UUID userId) {
-        return CompletableFuture.supplyAsync(() -> pointRepository.findAllByUserId(userId));
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
+    @Transactional(readOnly = true)
+    public CompletableFuture<List<PointDTO>> getMyPoints(UUID userId) {
+        return CompletableFuture.completedFuture(pointRepository.findAllDTOByUserId(userId));
+    }
+
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
+    @Transactional(readOnly = true)
+    public CompletableFuture<List<PointDTO>> getPointsPage(PointCursor cursor, Instant from, Instant to, int limit) {
+        Date fromTime = Timestamp.from(from != null ? from : MIN_TIME);
+        Date toTime = Timestamp.from(to != null ? to : MAX_TIME);
+        return CompletableFuture.completedFuture(cursor == null
+                ? pointRepository.findFirstPageDTO(fromTime, toTime, PageRequest.of(0, limit))
+                : pointRepository.findPageAfterDTO(cursor.timestampAsDate(), cursor.id(), fromTime, toTime, PageRequest.of(0, limit)));
     }
 
-    @Async
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
+    @Transactional(readOnly = true)
+    public CompletableFuture<List<PointDTO>> getMyPointsPage(UUID userId, PointCursor cursor, Instant from, Instant to, int limit) {
+        Date fromTime = Timestamp.from(from != null ? from : MIN_TIME);
+        Date toTime = Timestamp.from(to != null ? to : MAX_TIME);
+        return CompletableFuture.completedFuture(cursor == null
+                ? pointRepository.findFirstPageDTOByUserId(userId, fromTime, toTime, PageRequest.of(0, limit))
+                : pointRepository.findPageAfterDTOByUserId(userId, cursor.timestampAsDate(), cursor.id(), fromTime, toTime, PageRequest.of(0, limit)));
+    }
+
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
     @Transactional
     public CompletableFuture<Point> createPoint(CustomUserDetails user, PointRequest pointRequest) {
-        return CompletableFuture.supplyAsync(() -> {
-            long startTime = System.nanoTime();
-            return pointRepository.save(
-                    new Point(
-                            pointRequest.getX().doubleValue(),
-                            pointRequest.getY().doubleValue(),
-                            pointRequest.getR().doubleValue(),
-                            false,
-                            new Date(),
-                            System.nanoTime() - startTime,
-                            user.getUser()
-                    ).checkInside());
-        }); 
+        Point point = pointRepository.save(newPoint(user, pointRequest));
+        statsService.recordCreated(List.of(point));
+        return CompletableFuture.completedFuture(point);
+    }
+
+    public Point newPoint(CustomUserDetails user, PointRequest pointRequest) {
+        long startTime = System.nanoTime();
+        return new Point(
+                pointRequest.getX().doubleValue(),
+                pointRequest.getY().doubleValue(),
+                pointRequest.getR().doubleValue(),
+                false,
+                new Date(),
+                System.nanoTime() - startTime,
+                user.getUser()
+        ).checkInside();
+    }
+
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
+    @Transactional
+    public CompletableFuture<List<Point>> createPoints(CustomUserDetails user, List<PointRequest> pointRequests) {
+        PointBatch batch = PointBatch.of(pointRequests).checkInside();
+        long executionTime = batch.executionTimePerPoint();
+        Date timestamp = new Date();
+        List<Point> points = new ArrayList<>(batch.getSize());
+        for (int i = 0; i < batch.getSize(); i++) {
+            points.add(new Point(
+                    batch.getX()[i],
+                    batch.getY()[i],
+                    batch.getR()[i],
+                    batch.getInside()[i],
+                    timestamp,
+                    executionTime,
+                    user.getUser()
+            ));
+        }
+        pointRepository.insertAll(points);
+        statsService.recordCreated(points);
+        return CompletableFuture.completedFuture(points);
     }
 
-    @Async
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
     @Transactional
-    public CompletableFuture<Point> updatePoint(String id, Point updatedPoint) {
-        return CompletableFuture.supplyAsync(() ->
+    public CompletableFuture<Point> updatePoint(UUID id, Point updatedPoint) {
+        writeBehindService.flushIfPending(id);
+        return CompletableFuture.completedFuture(
                 pointRepository.findById(id)
                         .map(existingPoint -> {
+                            double previousR = existingPoint.getR();
+                            boolean previousInside = existingPoint.isInsideArea();
                             existingPoint.setX(updatedPoint.getX());
                             existingPoint.setY(updatedPoint.getY());
                             existingPoint.setR(updatedPoint.getR());
                             existingPoint.setInsideArea(updatedPoint.isInsideArea());
-                            return pointRepository.save(existingPoint);
+                            Point saved = pointRepository.save(existingPoint);
+                            statsService.recordUpdated(saved.getUser().getId(), previousR, previousInside, saved);
+                            return saved;
                         })
                         .orElseThrow(() -> new RuntimeException("Point not found with id: " + id))
         );
     }
 
-    @Async
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
     @Transactional
-    public CompletableFuture<Point> deletePoint(String id) {
-        return CompletableFuture.supplyAsync(() -> {
-            Point pointToDelete = pointRepository.findById(id)
-                    .orElseThrow(() -> new RuntimeException("Point not found with id: " + id));
-            pointRepository.deleteById(id);
-            return pointToDelete;
-        });
+    public CompletableFuture<Point> deletePoint(UUID id) {
+        writeBehindService.flushIfPending(id);
+        Point pointToDelete = pointRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Point not found with id: " + id));
+        // delete по загруженной сущности: deleteById искал бы точку по всем секциям ещё раз
+        pointRepository.delete(pointToDelete);
+        statsService.recordDeleted(pointToDelete);
+        return CompletableFuture.completedFuture(pointToDelete);
     }
 }
\ No newline at end of file
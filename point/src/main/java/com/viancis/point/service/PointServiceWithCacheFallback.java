@@ -1,6 +1,10 @@
 package com.viancis.point.service;
 
 import com.viancis.auth.service.CustomUserDetails;
+import com.viancis.common_point_user.cache.PointCacheEvent;
+import com.viancis.common_point_user.config.AsyncExecutorsConfig;
+import com.viancis.common_point_user.dto.PointCursor;
+import com.viancis.common_point_user.dto.PointDTO;
 import com.viancis.common_point_user.dto.PointNotification;
 import com.viancis.common_point_user.model.Point;
 import com.viancis.common_point_user.model.PointRequest;
@@ -8,13 +12,14 @@ import com.viancis.common_point_user.model.PointRequest;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
 
 @Service("pointServiceWithCacheFallback")
 @AllArgsConstructor
@@ -24,72 +29,106 @@ public class PointServiceWithCacheFallback implements PointService {
 
     private final PointServiceImpl pointService;
     private final CacheServiceImpl cacheService;
-    private final RabbitTemplate rabbitTemplate;
+    private final PointNotificationPublisher notificationPublisher;
     private final PointProcessingInterceptor pointProcessingInterceptor;
+    private final PointWriteBehindService writeBehindService;
+    private final PointReadModel pointReadModel;
+    private final ApplicationEventPublisher eventPublisher;
+    @Qualifier(AsyncExecutorsConfig.DB_EXECUTOR)
+    private final Executor dbExecutor;
+    @Qualifier(AsyncExecutorsConfig.MESSAGING_EXECUTOR)
+    private final Executor messagingExecutor;
 
 
+    // Сводное чтение включает запрос в БД, поэтому выполняется на пуле db, как и откат на БД
     @Override
-    @Async
-    public CompletableFuture<List<Point>> getAllPoints() {
-        return CompletableFuture.supplyAsync(() -> {
-            Set<UUID> cachedUserIds = cacheService.getAllUserIds().stream()
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toSet());
-            return cachedUserIds.isEmpty()
-                    ? pointService.getAllPoints().join()
-                    : cacheService.getPointsForUsers(cachedUserIds).isEmpty()
-                        ? pointService.getAllPoints().join()
-                        : cacheService.getPointsForUsers(cachedUserIds);
-        }).exceptionally(ex -> {
-            logger.error("Cache error: {}", ex.getMessage(), ex);
-            return pointService.getAllPoints().join();
-        });
+    public CompletableFuture<List<PointDTO>> getAllPoints() {
+        return CompletableFuture.supplyAsync(() -> pointReadModel.readAll().points(), dbExecutor)
+                .exceptionallyCompose(ex -> {
+                    logger.error("Cache error: {}", ex.getMessage(), ex);
+                    return pointService.getAllPoints();
+                });
     }
 
     @Override
-    public CompletableFuture<List<Point>> getMyPoints(UUID userId) {
-        return CompletableFuture.supplyAsync(() -> cacheService.getPoints(userId))
+    public CompletableFuture<List<PointDTO>> getMyPoints(UUID userId) {
+        return CompletableFuture.supplyAsync(() -> cacheService.getOrLoadPoints(userId), dbExecutor)
                 .thenCompose(cachedPoints -> cachedPoints != null
-                        ? CompletableFuture.completedFuture(new ArrayList<>(cachedPoints))
-                        : pointService.getMyPoints(userId).thenApply(dbPoints -> {
-                    cacheService.putPoints(userId, dbPoints);
-                    return dbPoints;
-                }))
-                .exceptionally(ex -> {
+                        ? CompletableFuture.completedFuture(toDTO(cachedPoints))
+                        : pointService.getMyPoints(userId))
+                .exceptionallyCompose(ex -> {
                     logger.error("Cache error: {}", ex.getMessage(), ex);
-                    return pointService.getMyPoints(userId).join();
+                    return pointService.getMyPoints(userId);
                 });
     }
 
+    // Страницы читаются напрямую из БД: кэш хранит списки целиком и порядок по (timestamp, id) не гарантирует
+    @Override
+    public CompletableFuture<List<PointDTO>> getPointsPage(PointCursor cursor, Instant from, Instant to, int limit) {
+        return pointService.getPointsPage(cursor, from, to, limit);
+    }
+
+    @Override
+    public CompletableFuture<List<PointDTO>> getMyPointsPage(UUID userId, PointCursor cursor, Instant from, Instant to, int limit) {
+        return pointService.getMyPointsPage(userId, cursor, from, to, limit);
+    }
+
     @Override
     public CompletableFuture<Point> createPoint(CustomUserDetails user, PointRequest pointRequest) {
+        UUID userId = user.getUser().getId();
+        if (writeBehindService.isEnabled()) {
+            // Точка сразу попадает в кэш и очередь записи, в БД её сбросит фоновый поток
+            Point createdPoint = writeBehindService.enqueue(pointService.newPoint(user, pointRequest));
+            eventPublisher.publishEvent(PointCacheEvent.created(userId, createdPoint));
+            sendNotification(userId, createdPoint);
+            return CompletableFuture.completedFuture(createdPoint);
+        }
         return pointService.createPoint(user, pointRequest)
                 .thenApply(createdPoint -> {
+                    try {
+                        eventPublisher.publishEvent(PointCacheEvent.created(userId, createdPoint));
+                    } catch (Exception ex) {
+                        logger.error("Failed to update cache: {}", ex.getMessage(), ex);
+                    }
+                    sendNotification(userId, createdPoint);
+                    return createdPoint;
+                });
+    }
+
+    private static List<PointDTO> toDTO(List<Point> points) {
+        List<PointDTO> dtos = new ArrayList<>(points.size());
+        points.forEach(point -> dtos.add(new PointDTO(point)));
+        return dtos;
+    }
+
+    private void sendNotification(UUID userId, Point createdPoint) {
+        notificationPublisher.publish(new PointNotification(userId, createdPoint));
+    }
+
+    @Override
+    public CompletableFuture<List<Point>> createPoints(CustomUserDetails user, List<PointRequest> pointRequests) {
+        UUID userId = user.getUser().getId();
+        return pointService.createPoints(user, pointRequests)
+                .thenApply(createdPoints -> {
                     CompletableFuture.runAsync(() -> {
                         try {
-                            cacheService.updateCache(user.getUser().getId(), createdPoint);
+                            createdPoints.forEach(point -> eventPublisher.publishEvent(PointCacheEvent.created(userId, point)));
                         } catch (Exception ex) {
-                            logger.error("Failed to update cache: ");
+                            logger.error("Failed to update cache: {}", ex.getMessage(), ex);
                         }
-                    });
+                    }, messagingExecutor);
 
+                    createdPoints.forEach(point -> sendNotification(userId, point));
 
-                    CompletableFuture.runAsync(() -> {
-                        rabbitTemplate.convertAndSend("user.notifications.point", new PointNotification(user.getUser().getId(), createdPoint));
-                        }).exceptionally(ex -> {
-                        logger.warn("Валера, ты лох — у тебя заяц сдох:");
-                        return null;
-                    });
-
-                    return createdPoint;
+                    return createdPoints;
                 });
     }
 
     @Override
-    public CompletableFuture<Point> updatePoint(String id, Point updatedPoint) {
+    public CompletableFuture<Point> updatePoint(UUID id, Point updatedPoint) {
         return pointService.updatePoint(id, updatedPoint)
                 .thenApply(updated -> {
-                    cacheService.updateCache(updated.getUser().getId(), updated);
+                    eventPublisher.publishEvent(PointCacheEvent.updated(updated.getUser().getId(), updated));
                     return updated;
                 })
                 .exceptionallyCompose(ex -> {
@@ -99,11 +138,11 @@ public class PointServiceWithCacheFallback implements PointService {
     }
 
     @Override
-    public CompletableFuture<Point> deletePoint(String id) {
+    public CompletableFuture<Point> deletePoint(UUID id) {
         return pointService.deletePoint(id)
                 .thenApply(point -> {
                     try {
-                        cacheService.removeFromCache(point.getUser().getId(), point);
+                        eventPublisher.publishEvent(PointCacheEvent.deleted(point.getUser().getId(), point));
                     } catch (Exception ex) {
                         logger.error("Failed to update cache: {}", ex.getMessage(), ex);
                     }
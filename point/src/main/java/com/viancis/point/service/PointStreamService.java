@@ -0,0 +1,51 @@
+package com.viancis.point.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.viancis.common_point_user.dto.PointDTO;
+import com.viancis.point.repository.PointRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выдача точек в NDJSON: строки проекции читаются курсором и сразу пишутся в ответ,
+ * список целиком в памяти не собирается, сущности в persistence context не попадают.
+ */
+@Service
+@RequiredArgsConstructor
+public class PointStreamService {
+
+    private final PointRepository pointRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${point.stream.flush-every:500}")
+    private int flushEvery;
+
+    @Transactional(readOnly = true)
+    public void writeAll(OutputStream out) throws IOException {
+        try (Stream<PointDTO> points = pointRepository.streamAllDTO();
+             SequenceWriter writer = objectMapper.writerFor(PointDTO.class)
+                     .withRootValueSeparator("\n")
+                     .writeValues(out)) {
+            Iterator<PointDTO> iterator = points.iterator();
+            int written = 0;
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                if (++written % flushEvery == 0) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+            if (written > 0) {
+                out.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.viancis.point.service;
+
+import com.viancis.common_point_user.model.Point;
+import com.viancis.common_point_user.model.UuidV7Generator;
+import com.viancis.point.repository.PointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Отложенная запись новых точек: createPoint кладёт точку в очередь и сразу отвечает,
+ * фоновый поток сбрасывает очередь в БД пачками через JDBC batch. Пачка и приращение
+ * user_point_stats фиксируются одной транзакцией. Выключена по умолчанию: подтверждённая точка
+ * до сброса живёт только в памяти и при падении процесса теряется.
+ */
+@Service
+@Slf4j
+public class PointWriteBehindService {
+
+    private final PointRepository pointRepository;
+
+    private final UserPointStatsService statsService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${point.cache.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${point.cache.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${point.cache.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${point.cache.write-behind.queue-capacity:100000}")
+    private int queueCapacity;
+
+    private BlockingDeque<Point> queue;
+
+    // Подтверждённые, но ещё не записанные точки по id. Точка попадает сюда до постановки в очередь
+    // и удаляется только после коммита своей пачки, поэтому между ответом клиенту и БД она видна всегда
+    private final Map<UUID, Pending> pendingById = new ConcurrentHashMap<>();
+
+    // Порядок постановки в очередь: в таком порядке точки отдаются читателям
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Пачка, запись которой не удалась: повторяется первой при следующем сбросе, в очередь не возвращается
+    private List<Point> failed = List.of();
+
+    private ScheduledExecutorService flusher;
+
+    public PointWriteBehindService(PointRepository pointRepository,
+                                   UserPointStatsService statsService,
+                                   PlatformTransactionManager transactionManager) {
+        this.pointRepository = pointRepository;
+        this.statsService = statsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Сброс из updatePoint/deletePoint не должен зависеть от отката их транзакции
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new LinkedBlockingDeque<>(queueCapacity);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "point-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Point enqueue(Point point) {
+        if (point.getId() == null) {
+            point.setId(UuidV7Generator.next());
+        }
+        pendingById.put(point.getId(), new Pending(sequence.incrementAndGet(), point));
+        if (!queue.offerLast(point)) {
+            // Очередь переполнена — пишем синхронно, чтобы не терять точку
+            log.warn("Write-behind queue is full, inserting point {} synchronously", point.getId());
+            try {
+                insert(List.of(point));
+            } finally {
+                pendingById.remove(point.getId());
+            }
+        }
+        return point;
+    }
+
+    // Все точки, которые ещё не записаны в БД
+    public List<Point> pending() {
+        if (!enabled) {
+            return List.of();
+        }
+        return inOrder(pendingById.values().stream());
+    }
+
+    // Точки пользователя, которые ещё не записаны в БД
+    public List<Point> pendingFor(UUID userId) {
+        if (!enabled) {
+            return List.of();
+        }
+        return inOrder(pendingById.values().stream()
+                .filter(pending -> userId.equals(pending.point().getUser().getId())));
+    }
+
+    private static List<Point> inOrder(Stream<Pending> pending) {
+        return pending.sorted(Comparator.comparingLong(Pending::sequence))
+                .map(Pending::point)
+                .collect(Collectors.toList());
+    }
+
+    // Точка ещё не записана в БД — сбрасываем очередь синхронно, чтобы изменение или удаление её нашло
+    public void flushIfPending(UUID pointId) {
+        if (enabled && pendingById.containsKey(pointId)) {
+            flush();
+        }
+    }
+
+    synchronized void flush() {
+        if (!failed.isEmpty() && !write(failed)) {
+            return;
+        }
+        failed = List.of();
+        List<Point> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            if (!write(batch)) {
+                failed = batch;
+                return;
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private boolean write(List<Point> batch) {
+        try {
+            insert(batch);
+        } catch (Exception ex) {
+            log.error("Failed to flush {} points, will retry: {}", batch.size(), ex.getMessage(), ex);
+            return false;
+        }
+        batch.forEach(point -> pendingById.remove(point.getId()));
+        return true;
+    }
+
+    private void insert(List<Point> points) {
+        transactionTemplate.executeWithoutResult(status -> {
+            pointRepository.insertAll(points);
+            statsService.recordCreated(points);
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private record Pending(long sequence, Point point) {
+    }
+}
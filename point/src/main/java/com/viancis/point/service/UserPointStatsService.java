@@ -0,0 +1,87 @@
+package com.viancis.point.service;
+
+import com.viancis.common_point_user.dto.UserPointStatsDTO;
+import com.viancis.common_point_user.model.Point;
+import com.viancis.point.repository.UserPointStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Инкрементальный агрегат user_point_stats: каждое изменение точек прибавляет приращение
+ * в транзакции самого изменения (MANDATORY), чтение — одна строка по ключу.
+ * Серия промахов ведётся по новым выстрелам; правка и удаление старых точек её не пересчитывают.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserPointStatsService {
+
+    public static final int R_BUCKETS = 10;
+
+    private final UserPointStatsRepository statsRepository;
+
+    // Точки в порядке выстрелов, возможно разных пользователей
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(List<Point> points) {
+        Map<UUID, Delta> deltas = new LinkedHashMap<>();
+        for (Point point : points) {
+            deltas.computeIfAbsent(point.getUser().getId(), userId -> new Delta()).shot(point);
+        }
+        deltas.forEach((userId, delta) -> statsRepository.add(userId, delta.total, delta.hits,
+                delta.trailingMisses, delta.hits > 0, delta.lastShotAt, delta.histogram));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdated(UUID userId, double previousR, boolean previousInside, Point updated) {
+        long[] histogram = new long[R_BUCKETS];
+        histogram[bucketOf(previousR)]--;
+        histogram[bucketOf(updated.getR())]++;
+        long hits = (updated.isInsideArea() ? 1 : 0) - (previousInside ? 1 : 0);
+        statsRepository.add(userId, 0, hits, 0, false, null, histogram);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Point point) {
+        long[] histogram = new long[R_BUCKETS];
+        histogram[bucketOf(point.getR())]--;
+        statsRepository.add(point.getUser().getId(), -1, point.isInsideArea() ? -1 : 0, 0, false, null, histogram);
+    }
+
+    @Transactional(readOnly = true)
+    public UserPointStatsDTO find(UUID userId) {
+        return statsRepository.find(userId).orElseGet(() -> UserPointStatsDTO.empty(userId, R_BUCKETS));
+    }
+
+    static int bucketOf(double r) {
+        return (int) Math.min(Math.max(Math.floor(r), 0), R_BUCKETS - 1);
+    }
+
+    private static final class Delta {
+        long total;
+        long hits;
+        int trailingMisses;
+        Date lastShotAt;
+        final long[] histogram = new long[R_BUCKETS];
+
+        void shot(Point point) {
+            total++;
+            if (point.isInsideArea()) {
+                hits++;
+                trailingMisses = 0;
+            } else {
+                trailingMisses++;
+            }
+            histogram[bucketOf(point.getR())]++;
+            if (point.getTimestamp() != null && (lastShotAt == null || point.getTimestamp().after(lastShotAt))) {
+                lastShotAt = point.getTimestamp();
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- points.id: строки uuid2 (varchar) -> нативный uuid. Существующие строки сохраняют свои uuid4,
+-- новые получают UUIDv7 из приложения. На пустой базе таблицу создаёт Hibernate, миграция ничего не делает.
+-- ALTER переписывает таблицу и индексы под эксклюзивной блокировкой: на большой таблице выполнять в окно обслуживания.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1
+               FROM information_schema.columns
+               WHERE table_schema = current_schema()
+                 AND table_name = 'points'
+                 AND column_name = 'id'
+                 AND data_type <> 'uuid') THEN
+        ALTER TABLE points ALTER COLUMN id TYPE uuid USING id::uuid;
+        ANALYZE points;
+    END IF;
+END $$;
@@ -0,0 +1,144 @@
+-- Помесячное секционирование points по timestamp (RANGE). Первичный ключ секционированной таблицы
+-- обязан включать ключ секционирования, поэтому он (id, timestamp).
+-- Существующая таблица подключается секцией points_legacy для всех строк до начала следующего месяца,
+-- новые месяцы получают отдельные секции. Миграция идёт вне транзакции (V2__points_monthly_partitions.sql.conf):
+-- индексы будущей секции строятся CONCURRENTLY, ограничения проверяются VALIDATE, а под ACCESS EXCLUSIVE
+-- остаются только переименования и ATTACH, которому уже нечего сканировать и строить.
+-- Строки вне созданных секций попадают в секцию по умолчанию points_default, поэтому вставка не падает,
+-- даже если PointPartitionService выключен или не успел создать месяц; create_points_partition переносит их
+-- в секцию месяца при её создании.
+-- Поиск, изменение и удаление по одному id (findById, UPDATE/DELETE ... WHERE id = ?) не отсекают секции:
+-- это проба индекса первичного ключа в каждой секции, стоимость растёт с числом секций.
+-- Архивирование (point.partitions.retention-months) ограничивает их число.
+
+CREATE SCHEMA IF NOT EXISTS points_archive;
+
+-- Секция на месяц, содержащий month; пересечение с уже существующей секцией (points_legacy) пропускается.
+-- Строки этого месяца, попавшие в points_default, переносятся в новую секцию той же транзакцией:
+-- иначе PostgreSQL не даст создать секцию, пересекающуюся со строками секции по умолчанию
+CREATE OR REPLACE FUNCTION create_points_partition(month date) RETURNS void AS $$
+DECLARE
+    start_date     date := date_trunc('month', month)::date;
+    end_date       date := (date_trunc('month', month) + interval '1 month')::date;
+    partition_name text := 'points_p' || to_char(start_date, 'YYYY_MM');
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+    IF to_regclass('points_default') IS NOT NULL
+            AND EXISTS (SELECT 1 FROM points_default WHERE timestamp >= start_date AND timestamp < end_date) THEN
+        EXECUTE format('CREATE TABLE %I (LIKE points INCLUDING DEFAULTS)', partition_name);
+        EXECUTE format('WITH moved AS (DELETE FROM points_default WHERE timestamp >= %L AND timestamp < %L RETURNING *) ' ||
+                       'INSERT INTO %I SELECT * FROM moved', start_date, end_date, partition_name);
+        EXECUTE format('ALTER TABLE points ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, start_date, end_date);
+        RETURN;
+    END IF;
+    EXECUTE format('CREATE TABLE %I PARTITION OF points FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, start_date, end_date);
+EXCEPTION
+    WHEN invalid_object_definition THEN
+        RAISE NOTICE 'Partition % overlaps an existing partition, skipped', partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- На новой базе создаётся пустая обычная таблица: дальше обе базы проходят один путь,
+-- а пустая points_legacy в конце удаляется
+DO $$
+BEGIN
+    IF to_regclass('points') IS NULL AND to_regclass('points_legacy') IS NULL THEN
+        CREATE TABLE points (
+            id             uuid         NOT NULL PRIMARY KEY,
+            x              float8       NOT NULL,
+            y              float8       NOT NULL,
+            r              float8       NOT NULL,
+            inside_area    boolean      NOT NULL,
+            timestamp      timestamp(6),
+            execution_time bigint       NOT NULL,
+            user_id        uuid         NOT NULL
+        );
+    END IF;
+END $$;
+
+-- Индексы будущей секции: уже существующие (созданные Hibernate) пропускаются, недостающие строятся без блокировки записи
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS points_id_timestamp_key ON points (id, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_points_timestamp_id ON points (timestamp, id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_points_user_timestamp_id ON points (user_id, timestamp, id);
+
+-- Ограничения добавляются NOT VALID (без сканирования) и проверяются отдельно под SHARE UPDATE EXCLUSIVE.
+-- Проверенный CHECK избавляет SET NOT NULL и ATTACH от сканирования таблицы.
+DO $$
+DECLARE
+    legacy_upper date := (date_trunc('month', now()) + interval '1 month')::date;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('points')) IS DISTINCT FROM 'r' THEN
+        RETURN;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'points_legacy_range') THEN
+        EXECUTE format('ALTER TABLE points ADD CONSTRAINT points_legacy_range ' ||
+                       'CHECK (timestamp IS NOT NULL AND timestamp < %L) NOT VALID', legacy_upper);
+    END IF;
+    -- Внешний ключ секции подключается к ключу родителя без повторной проверки. На новой базе users
+    -- ещё нет: ключ создаст Hibernate вместе с таблицей users
+    IF to_regclass('users') IS NOT NULL AND NOT EXISTS (
+            SELECT 1 FROM pg_constraint
+            WHERE conrelid = 'points'::regclass AND contype = 'f' AND confrelid = 'users'::regclass) THEN
+        ALTER TABLE points ADD CONSTRAINT points_user_id_fkey
+            FOREIGN KEY (user_id) REFERENCES users (id) NOT VALID;
+    END IF;
+END $$;
+
+DO $$
+DECLARE
+    fk text;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('points')) IS DISTINCT FROM 'r' THEN
+        RETURN;
+    END IF;
+    ALTER TABLE points VALIDATE CONSTRAINT points_legacy_range;
+    FOR fk IN SELECT conname FROM pg_constraint
+              WHERE conrelid = 'points'::regclass AND contype = 'f' AND NOT convalidated LOOP
+        EXECUTE format('ALTER TABLE points VALIDATE CONSTRAINT %I', fk);
+    END LOOP;
+END $$;
+
+-- Переключение: короткие операции над каталогом под ACCESS EXCLUSIVE
+DO $$
+DECLARE
+    legacy_upper date := (date_trunc('month', now()) + interval '1 month')::date;
+    pkey         text;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = to_regclass('points')) = 'r' THEN
+        ALTER TABLE points ALTER COLUMN timestamp SET NOT NULL;
+        SELECT conname INTO pkey FROM pg_constraint WHERE conrelid = 'points'::regclass AND contype = 'p';
+        IF pkey IS NOT NULL THEN
+            EXECUTE format('ALTER TABLE points DROP CONSTRAINT %I', pkey);
+        END IF;
+        ALTER TABLE points ADD CONSTRAINT points_legacy_pkey PRIMARY KEY USING INDEX points_id_timestamp_key;
+        ALTER TABLE points RENAME TO points_legacy;
+        ALTER INDEX idx_points_timestamp_id RENAME TO points_legacy_timestamp_id;
+        ALTER INDEX idx_points_user_timestamp_id RENAME TO points_legacy_user_timestamp_id;
+
+        CREATE TABLE points (LIKE points_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (timestamp);
+        ALTER TABLE points ADD PRIMARY KEY (id, timestamp);
+        EXECUTE format('ALTER TABLE points ATTACH PARTITION points_legacy FOR VALUES FROM (MINVALUE) TO (%L)', legacy_upper);
+        IF to_regclass('users') IS NOT NULL THEN
+            ALTER TABLE points ADD FOREIGN KEY (user_id) REFERENCES users (id);
+        END IF;
+    END IF;
+
+    -- Секционированные индексы: одинаковые индексы points_legacy подключаются, а не строятся заново
+    CREATE INDEX IF NOT EXISTS idx_points_timestamp_id ON points (timestamp, id);
+    CREATE INDEX IF NOT EXISTS idx_points_user_timestamp_id ON points (user_id, timestamp, id);
+
+    -- Пустая points_legacy (новая база) не нужна: её месяцы займут обычные секции
+    IF to_regclass('points_legacy') IS NOT NULL AND NOT EXISTS (SELECT 1 FROM points_legacy) THEN
+        ALTER TABLE points DETACH PARTITION points_legacy;
+        DROP TABLE points_legacy;
+    END IF;
+
+    CREATE TABLE IF NOT EXISTS points_default PARTITION OF points DEFAULT;
+
+    PERFORM create_points_partition((date_trunc('month', now()) + make_interval(months => m))::date)
+    FROM generate_series(0, 3) AS m;
+END $$;
@@ -0,0 +1,40 @@
+-- Агрегат по пользователю, обновляется в той же транзакции, что и запись точек.
+-- Корзина k = 0..9 — выстрелы с r в [k, k + 1): в SQL это r_histogram[k + 1] (массивы с 1), в UserPointStatsDTO — rHistogram[k].
+-- r < 0 считаются в корзине 0, r >= 9 — в корзине 9.
+CREATE TABLE IF NOT EXISTS user_point_stats (
+    user_id      uuid PRIMARY KEY,
+    total        bigint   NOT NULL DEFAULT 0,
+    hits         bigint   NOT NULL DEFAULT 0,
+    miss_streak  integer  NOT NULL DEFAULT 0,
+    last_shot_at timestamp(6),
+    r_histogram  bigint[] NOT NULL DEFAULT '{0,0,0,0,0,0,0,0,0,0}'
+);
+
+-- Заполнение по уже существующим точкам; серия промахов — выстрелы после последнего попадания
+INSERT INTO user_point_stats (user_id, total, hits, miss_streak, last_shot_at, r_histogram)
+SELECT u.user_id,
+       u.total,
+       u.hits,
+       (SELECT count(*)
+        FROM points m
+        WHERE m.user_id = u.user_id
+          AND m.timestamp > COALESCE((SELECT max(h.timestamp)
+                                      FROM points h
+                                      WHERE h.user_id = u.user_id AND h.inside_area), '-infinity')),
+       u.last_shot_at,
+       hist.r_histogram
+FROM (SELECT user_id,
+             count(*)                              AS total,
+             count(*) FILTER (WHERE inside_area)   AS hits,
+             max(timestamp)                        AS last_shot_at
+      FROM points
+      GROUP BY user_id) u
+CROSS JOIN LATERAL (
+    SELECT array_agg(COALESCE(c.n, 0) ORDER BY b.bucket) AS r_histogram
+    FROM generate_series(1, 10) AS b(bucket)
+    LEFT JOIN (SELECT LEAST(GREATEST(floor(r)::int, 0), 9) + 1 AS bucket, count(*) AS n
+               FROM points
+               WHERE user_id = u.user_id
+               GROUP BY 1) c ON c.bucket = b.bucket
+) hist
+ON CONFLICT (user_id) DO NOTHING;
@@ -0,0 +1,117 @@
+package com.viancis.statistic.configuration;
+
+import com.viancis.common_point_user.config.PointNotificationMessageConverter;
+import com.viancis.common_point_user.config.RabbitConfig;
+import com.viancis.common_point_user.dto.PointNotification;
+import com.viancis.statistic.service.NotificationStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пакетное чтение уведомлений: по одному потребителю на каждую очередь-партицию.
+ * Внутри партиции сообщения обрабатываются по порядку, поэтому порядок уведомлений
+ * одного пользователя сохраняется, а партиции читаются параллельно. Пачка подтверждается одним ack
+ * после сохранения; при ошибке сохранения пачка возвращается в очередь целиком.
+ * Прежняя общая очередь дочитывается тем же пакетным путём.
+ */
+@Configuration
+@Slf4j
+public class NotificationListenerConfig implements RabbitListenerConfigurer {
+
+    private final NotificationStorageService storageService;
+    private final PointNotificationMessageConverter messageConverter;
+    private final ConnectionFactory connectionFactory;
+
+    @Value("${point.notifications.partitions:4}")
+    private int partitions;
+
+    @Value("${statistic.notifications.consumer.prefetch:500}")
+    private int prefetch;
+
+    @Value("${statistic.notifications.consumer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${statistic.notifications.consumer.receive-timeout-ms:100}")
+    private long receiveTimeoutMs;
+
+    public NotificationListenerConfig(NotificationStorageService storageService,
+                                      PointNotificationMessageConverter messageConverter,
+                                      ConnectionFactory connectionFactory) {
+        this.storageService = storageService;
+        this.messageConverter = messageConverter;
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory notificationBatchContainerFactory() {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(prefetch);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        // Один потребитель на партицию — иначе сообщения одного пользователя обгоняют друг друга
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        return factory;
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        SimpleRabbitListenerContainerFactory factory = notificationBatchContainerFactory();
+        for (int partition = 0; partition < partitions; partition++) {
+            registrar.registerEndpoint(batchEndpoint("notifications-partition-" + partition,
+                    RabbitConfig.notificationPartitionQueue(partition)), factory);
+        }
+        // Сообщения, отправленные до перехода на партиции
+        registrar.registerEndpoint(batchEndpoint("notifications-legacy",
+                RabbitConfig.LEGACY_POINT_NOTIFICATIONS_QUEUE), factory);
+    }
+
+    private SimpleRabbitListenerEndpoint batchEndpoint(String id, String queue) {
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setId(id);
+        endpoint.setQueueNames(queue);
+        endpoint.setMessageListener(new MessageListener() {
+            @Override
+            public void onMessage(Message message) {
+                onMessageBatch(List.of(message));
+            }
+
+            @Override
+            public void onMessageBatch(List<Message> messages) {
+                storageService.storeBatch(convert(messages));
+            }
+        });
+        return endpoint;
+    }
+
+    // Нечитаемое сообщение пропускается: иначе оно возвращало бы в очередь всю пачку бесконечно
+    private List<PointNotification> convert(List<Message> messages) {
+        List<PointNotification> notifications = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                notifications.add((PointNotification) messageConverter.fromMessage(message, PointNotification.class));
+            } catch (MessageConversionException | ClassCastException ex) {
+                log.error("Skipping unreadable notification: {}", ex.getMessage());
+            }
+        }
+        return notifications;
+    }
+}
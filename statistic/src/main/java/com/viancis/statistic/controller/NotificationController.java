@@ -1,14 +1,18 @@
 package com.viancis.statistic.controller;
 
 
-import com.viancis.common_point_user.dto.PointNotification;
+import com.viancis.statistic.dto.NotificationPage;
 import com.viancis.statistic.service.NotificationStorageService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.time.Instant;
+import java.util.UUID;
 
 @RestController
 @RequiredArgsConstructor
@@ -17,8 +21,20 @@ public class NotificationController {
 
     private final NotificationStorageService storageService;
 
+    @Value("${statistic.notifications.page.max-limit:1000}")
+    private int maxPageLimit;
+
+    // GET /api/notifications/?userId=&from=&to=&limit=&cursor= — от новых к старым, from включительно, to исключительно
     @GetMapping("/")
-    public List<PointNotification> getNotifications() {
-        return storageService.getAll();
+    public NotificationPage getNotifications(
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) Long cursor) {
+        if (limit < 1 || limit > maxPageLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageLimit);
+        }
+        return storageService.find(userId, from, to, cursor, limit);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.viancis.statistic.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.viancis.common_point_user.dto.PointNotification;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NotificationPage {
+    private List<PointNotification> items;
+
+    // null, если страница последняя
+    private Long nextCursor;
+}
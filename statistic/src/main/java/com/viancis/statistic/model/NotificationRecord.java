@@ -0,0 +1,81 @@
+package com.viancis.statistic.model;
+
+import com.viancis.common_point_user.dto.PointNotification;
+import com.viancis.common_point_user.model.Point;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Уведомление о точке в журнале statistic. Строки только добавляются (id растёт по порядку приёма)
+ * и удаляются целиком по сроку хранения.
+ */
+@Entity
+@Table(name = "point_notifications", indexes = {
+        @Index(name = "idx_point_notifications_user_id", columnList = "user_id, id"),
+        @Index(name = "idx_point_notifications_received_at", columnList = "received_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "point_notifications_seq")
+    @SequenceGenerator(name = "point_notifications_seq", sequenceName = "point_notifications_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "point_id", length = 36)
+    private String pointId;
+
+    @Column(nullable = false)
+    private double x;
+
+    @Column(nullable = false)
+    private double y;
+
+    @Column(nullable = false)
+    private double r;
+
+    @Column(name = "inside_area", nullable = false)
+    private boolean insideArea;
+
+    @Column(name = "point_timestamp")
+    private Instant pointTimestamp;
+
+    @Column(name = "execution_time", nullable = false)
+    private long executionTime;
+
+    @Column(name = "received_at", nullable = false)
+    private Instant receivedAt;
+
+    public static NotificationRecord of(PointNotification notification, Instant receivedAt) {
+        Point point = notification.point();
+        NotificationRecord record = new NotificationRecord();
+        record.userId = notification.user();
+        record.pointId = point.getId() != null ? point.getId().toString() : null;
+        record.x = point.getX();
+        record.y = point.getY();
+        record.r = point.getR();
+        record.insideArea = point.isInsideArea();
+        record.pointTimestamp = point.getTimestamp() != null ? point.getTimestamp().toInstant() : null;
+        record.executionTime = point.getExecutionTime();
+        record.receivedAt = receivedAt;
+        return record;
+    }
+
+    public PointNotification toNotification() {
+        Point point = new Point(x, y, r, insideArea,
+                pointTimestamp != null ? Date.from(pointTimestamp) : null, executionTime, null);
+        point.setId(pointId != null ? UUID.fromString(pointId) : null);
+        return new PointNotification(userId, point);
+    }
+}
@@ -0,0 +1,44 @@
+package com.viancis.statistic.repository;
+
+import com.viancis.statistic.model.NotificationRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationRecordRepository extends JpaRepository<NotificationRecord, Long> {
+
+    // Keyset-страницы от новых к старым: следующая страница начинается с id меньше последнего выданного
+    @Query("SELECT n FROM NotificationRecord n " +
+            "WHERE n.id < :cursor AND n.receivedAt >= :from AND n.receivedAt < :to " +
+            "ORDER BY n.id DESC")
+    List<NotificationRecord> findPage(@Param("cursor") long cursor,
+                                      @Param("from") Instant from,
+                                      @Param("to") Instant to,
+                                      Pageable pageable);
+
+    @Query("SELECT n FROM NotificationRecord n " +
+            "WHERE n.userId = :userId AND n.id < :cursor AND n.receivedAt >= :from AND n.receivedAt < :to " +
+            "ORDER BY n.id DESC")
+    List<NotificationRecord> findPageByUserId(@Param("userId") UUID userId,
+                                              @Param("cursor") long cursor,
+                                              @Param("from") Instant from,
+                                              @Param("to") Instant to,
+                                              Pageable pageable);
+
+    // Удаление порциями, чтобы не держать долгую блокировку на большом журнале
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM point_notifications WHERE id IN " +
+            "(SELECT id FROM point_notifications WHERE received_at < :cutoff LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteOlderThan(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+}
@@ -2,27 +2,116 @@ package com.viancis.statistic.service;
 
 
 import com.viancis.common_point_user.dto.PointNotification;
+import com.viancis.statistic.dto.NotificationPage;
+import com.viancis.statistic.model.NotificationRecord;
+import com.viancis.statistic.repository.NotificationRecordRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Журнал уведомлений в Postgres: запись только добавлением, чтение keyset-страницами
+ * по пользователю и интервалу времени, старые записи удаляются по сроку хранения.
+ */
 @Service
 @Slf4j
 public class NotificationStorageService {
 
-    private final List<PointNotification> notifications = new ArrayList<>();
+    private static final Instant MIN_TIME = Instant.EPOCH;
+    private static final Instant MAX_TIME = Instant.parse("9999-12-31T00:00:00Z");
 
+    private final NotificationRecordRepository repository;
 
-    @RabbitListener(queues = "user.notifications.point")
-    public void store(PointNotification event) {
-        log.warn("⚠️ Вот так вот получается, что пользователь {} имеет {} промахов!", event.user().toString(), event.point().isInside());
-        notifications.add(event);
+    @Value("${statistic.notifications.retention-days:30}")
+    private long retentionDays;
+
+    @Value("${statistic.notifications.retention-batch-size:10000}")
+    private int retentionBatchSize;
+
+    @Value("${statistic.notifications.retention-interval-minutes:60}")
+    private long retentionIntervalMinutes;
+
+    private ScheduledExecutorService retention;
+
+    public NotificationStorageService(NotificationRecordRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    public void start() {
+        retention = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-retention");
+            thread.setDaemon(true);
+            return thread;
+        });
+        retention.scheduleWithFixedDelay(this::purgeExpired, 1, retentionIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    // Пачка из одной очереди (партиции или прежней общей): сохраняется одним батчем в порядке получения
+    @Transactional
+    public void storeBatch(List<PointNotification> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Instant receivedAt = Instant.now();
+        List<NotificationRecord> records = new ArrayList<>(events.size());
+        for (PointNotification event : events) {
+            records.add(NotificationRecord.of(event, receivedAt));
+        }
+        repository.saveAll(records);
+        log.debug("Stored {} notifications", records.size());
+    }
+
+    public NotificationPage find(UUID userId, Instant from, Instant to, Long cursor, int limit) {
+        long after = cursor != null ? cursor : Long.MAX_VALUE;
+        Instant fromTime = from != null ? from : MIN_TIME;
+        Instant toTime = to != null ? to : MAX_TIME;
+        // Запрашиваем limit + 1 строку: лишняя строка означает, что есть следующая страница
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<NotificationRecord> records = userId != null
+                ? repository.findPageByUserId(userId, after, fromTime, toTime, page)
+                : repository.findPage(after, fromTime, toTime, page);
+
+        boolean hasNext = records.size() > limit;
+        List<NotificationRecord> items = hasNext ? records.subList(0, limit) : records;
+        Long nextCursor = hasNext ? items.get(items.size() - 1).getId() : null;
+        return new NotificationPage(items.stream().map(NotificationRecord::toNotification).toList(), nextCursor);
+    }
+
+    void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
+        try {
+            int deleted;
+            long total = 0;
+            do {
+                deleted = repository.deleteOlderThan(cutoff, retentionBatchSize);
+                total += deleted;
+            } while (deleted == retentionBatchSize);
+            if (total > 0) {
+                log.info("Removed {} notifications older than {}", total, cutoff);
+            }
+        } catch (Exception ex) {
+            log.error("Failed to purge expired notifications: {}", ex.getMessage(), ex);
+        }
     }
 
-    public List<PointNotification> getAll() {
-        return List.copyOf(notifications);
+    @PreDestroy
+    public void stop() {
+        if (retention != null) {
+            retention.shutdown();
+        }
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import com.viancis.auth.model.User;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 
 import java.util.List;
@@ -12,6 +13,7 @@ import java.util.UUID;
 
 public interface UserPointRepository extends JpaRepository<User, UUID> {
 
+    @Transactional(readOnly = true)
     @EntityGraph(attributePaths = "points")
     @Query("SELECT u FROM User u")
     List<User> findAllWithPoints();
@@ -12,6 +12,7 @@ import com.viancis.auth.model.UserDTO;
 import com.viancis.auth.repository.UserRepository;
 import com.viancis.auth.response.LoginResponse;
 import com.viancis.auth.service.CustomUserDetails;
+import com.viancis.common_point_user.config.AsyncExecutorsConfig;
 import com.viancis.user.controller.LoginRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +20,8 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -56,61 +59,55 @@ public class UserServiceImpl {
 //                .collect(Collectors.toList()));
 //    }
 
-    @Async
-    @Transactional
+    // Тела методов выполняются синхронно на потоке пула, там же открывается транзакция
+    // Чтения readOnly идут на реплику, поэтому сохранять прочитанного пользователя здесь нельзя
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
+    @Transactional(readOnly = true)
     public CompletableFuture<UserDTO> getUserById(UUID id) {  // UUID вместо String
-        return CompletableFuture
-                .supplyAsync(() -> userRepository.findById(id)
-                .map(existingUser -> new UserDTO().fromUserToDTO(userRepository.save(existingUser)))
+        return CompletableFuture.completedFuture(userRepository.findById(id)
+                .map(existingUser -> new UserDTO().fromUserToDTO(existingUser))
                 .orElseThrow(() -> new UserNotFoundException(id.toString())));
     }
 
-    @Async
-    @Transactional
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
+    @Transactional(readOnly = true)
     public CompletableFuture<UserDTO> getUserByUsername(String username) {
-        return CompletableFuture
-                .supplyAsync(() -> userRepository.findByUsername(username)
-                .map(existingUser -> new UserDTO().fromUserToDTO(userRepository.save(existingUser)))
+        return CompletableFuture.completedFuture(userRepository.findByUsername(username)
+                .map(existingUser -> new UserDTO().fromUserToDTO(existingUser))
                 .orElseThrow(() -> new UserNotFoundException(username)));
     }
 
-    @Async
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
     @Transactional
     public CompletableFuture<UserDTO> registerUser(User user) {
-        return CompletableFuture.supplyAsync(() -> userRepository.findByUsername(user.getUsername()))
-                .thenCompose(existingUser -> {
-                    if (existingUser.isPresent()) throw new UserAlreadyExistsException(user.getUsername());
-                    user.setRoles(Collections.singleton(Role.USER));
-                    user.setPassword(passwordEncoder.encodePassword(user.getPassword()));
-                    return CompletableFuture.supplyAsync(() -> new UserDTO().fromUserToDTO(userRepository.save(user)));
-                });
+        if (userRepository.findByUsername(user.getUsername()).isPresent()) throw new UserAlreadyExistsException(user.getUsername());
+        user.setRoles(Collections.singleton(Role.USER));
+        user.setPassword(passwordEncoder.encodePassword(user.getPassword()));
+        return CompletableFuture.completedFuture(new UserDTO().fromUserToDTO(userRepository.save(user)));
     }
 
-    @Async
+    // Проверка пароля — в основном хэширование, поэтому вход идёт на пуле cpu
+    @Async(AsyncExecutorsConfig.CPU_EXECUTOR)
     @Transactional
     public CompletableFuture<LoginResponse> loginUser(LoginRequest userBody) {
-        System.out.println("LoginRequest: " + userBody);
-
-        return CompletableFuture
-                .supplyAsync(() -> authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(userBody.getUsername(), userBody.getPassword())))
-                .thenApply(authResult -> {
-                    if (!authResult.isAuthenticated()) throw new InvalidCredentialsException();
-                    return new LoginResponse(jwtTokenProvider.generateToken((CustomUserDetails) authResult.getPrincipal()));
-                })
-                .exceptionally(ex -> {
-                    throw new InvalidCredentialsException();
-                });
+        Authentication authResult;
+        try {
+            authResult = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(userBody.getUsername(), userBody.getPassword()));
+        } catch (AuthenticationException ex) {
+            throw new InvalidCredentialsException();
+        }
+        if (!authResult.isAuthenticated()) throw new InvalidCredentialsException();
+        return CompletableFuture.completedFuture(new LoginResponse(jwtTokenProvider.generateToken((CustomUserDetails) authResult.getPrincipal())));
     }
 
-    @Async
-    @Transactional
     public CompletableFuture<UserDTO> getMe(CustomUserDetails userDetails) {
-        return CompletableFuture.supplyAsync(() -> new UserDTO().toDTO(userDetails));
+        return CompletableFuture.completedFuture(new UserDTO().toDTO(userDetails));
     }
 
-    @Async
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
+    @Transactional
     public CompletableFuture<UserDTO> updateUserBySelf(CustomUserDetails user, UserDTO updatedUser) {
-        return CompletableFuture.supplyAsync(() -> userRepository.findById(user.getUser().getId())  // UUID вместо String
+        return CompletableFuture.completedFuture(userRepository.findById(user.getUser().getId())  // UUID вместо String
                 .map(existingUser -> {
                     existingUser.setUsername(updatedUser.getUsername());
                     return new UserDTO().fromUserToDTO(userRepository.save(existingUser));
@@ -118,23 +115,21 @@ public class UserServiceImpl {
                 .orElseThrow(() -> new UserNotFoundException(user.getUser().getId().toString())));
     }
 
-    @Async
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
+    @Transactional
     public CompletableFuture<UserDTO> updateUserByAdmin(CustomUserDetails admin, UUID targetUserId, UserDTO updatedUser) {  // UUID вместо String
-        return CompletableFuture.supplyAsync(() -> userRepository.findById(targetUserId).orElseThrow(() -> new UserNotFoundException(targetUserId.toString())))
-                .thenApply(targetUser -> {
-                    if (!admin.getUser().getRoles().stream().allMatch(role -> role.getLevel() > targetUser.getRoles().stream().mapToInt(Role::getLevel).max().orElse(0))) throw new AccessDeniedException("Как ты это ваще сделал, гнида");
-                    targetUser.setUsername(updatedUser.getUsername());
-                    targetUser.setRoles(updatedUser.getRoles());
-                    return targetUser;
-                })
-                .thenApply(targetUser -> new UserDTO().fromUserToDTO(userRepository.save(targetUser)));
+        User targetUser = userRepository.findById(targetUserId).orElseThrow(() -> new UserNotFoundException(targetUserId.toString()));
+        if (!admin.getUser().getRoles().stream().allMatch(role -> role.getLevel() > targetUser.getRoles().stream().mapToInt(Role::getLevel).max().orElse(0))) throw new AccessDeniedException("Как ты это ваще сделал, гнида");
+        targetUser.setUsername(updatedUser.getUsername());
+        targetUser.setRoles(updatedUser.getRoles());
+        return CompletableFuture.completedFuture(new UserDTO().fromUserToDTO(userRepository.save(targetUser)));
     }
 
-    @Async
+    @Async(AsyncExecutorsConfig.DB_EXECUTOR)
+    @Transactional
     public CompletableFuture<Void> deleteUser(UUID id) {  // UUID вместо String
-        return CompletableFuture.runAsync(() -> {
-            if (!userRepository.existsById(id)) throw new UserNotFoundException(id.toString());
-            userRepository.deleteById(id);
-        });
+        if (!userRepository.existsById(id)) throw new UserNotFoundException(id.toString());
+        userRepository.deleteById(id);
+        return CompletableFuture.completedFuture(null);
     }
-}
\ No newline at end of file
+}